@@ -1,11 +1,17 @@
 package org.example.client.utility;
 
+import org.example.common.network.Notification;
 import org.example.common.network.Request;
 import org.example.common.network.Response;
 import org.example.common.network.StatusCode;
 import org.example.client.commandLine.Printable;
+import org.example.common.utility.ByteBufferInputStream;
+import org.example.common.utility.ByteBufferOutputStream;
+import org.example.common.utility.ConsoleColors;
+import org.example.common.utility.DirectBufferPool;
 import java.io.*;
 import java.net.InetSocketAddress;
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.nio.channels.*;
 import java.util.Iterator;
@@ -20,7 +26,8 @@ public class Client {
     private DatagramChannel channel;
     private Selector selector;
 
-    private static final int BUFFER_SIZE = 65536; // 64 KB
+    private static final int MAX_DATAGRAM = 65507; // largest UDP payload
+    private final DirectBufferPool bufferPool = DirectBufferPool.shared();
     private static final int TIMEOUT_MS = 5000;   // 5 seconds timeout
 
     private int reconnectionAttempts = 0;
@@ -42,17 +49,22 @@ public class Client {
 
         InetSocketAddress serverAddress = new InetSocketAddress(host, port);
 
-        // Serialize request
-        ByteBuffer sendBuffer = serialize(request);
-        if (sendBuffer == null) {
-            throw new IOException("Failed to serialize request");
-        }
-
-        // Send request
-        channel.send(sendBuffer, serverAddress);
+        // Serialize request; the server drops it once we have stopped waiting
+        request.setTimeoutMillis(TIMEOUT_MS);
+        try (DirectBufferPool.Lease sendLease = bufferPool.acquire();
+             DirectBufferPool.Lease receiveLease = bufferPool.acquire()) {
+            ByteBuffer sendBuffer = sendLease.buffer();
+            if (!serialize(request, sendBuffer)) {
+                throw new IOException("Failed to serialize request");
+            }
 
-        ByteBuffer receiveBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+            // Send request
+            channel.send(sendBuffer, serverAddress);
+            return awaitResponse(serverAddress, receiveLease.buffer());
+        }
+    }
 
+    private Response awaitResponse(InetSocketAddress serverAddress, ByteBuffer receiveBuffer) throws IOException, ClassNotFoundException {
         long startTime = System.currentTimeMillis();
 
         while (true) {
@@ -73,9 +85,14 @@ public class Client {
                     receiveBuffer.flip();
 
                     if (fromAddress != null && fromAddress.equals(serverAddress)) {
-                        Response response = deserialize(receiveBuffer);
+                        Object received = deserialize(receiveBuffer);
+                        if (received instanceof Notification notification) {
+                            // pushed by a subscription, not the answer we are waiting for
+                            console.println(ConsoleColors.toColor("Уведомление: " + notification, ConsoleColors.PURPLE));
+                            continue;
+                        }
                         reconnectionAttempts = 0;
-                        return response;
+                        return (Response) received;
                     }
                 }
             }
@@ -111,22 +128,27 @@ public class Client {
         }
     }
 
-    private ByteBuffer serialize(Request request) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-             ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+    /**
+     * Serializes the request straight into the buffer and flips it for sending.
+     */
+    private boolean serialize(Request request, ByteBuffer buffer) {
+        buffer.limit(MAX_DATAGRAM);
+        try (ObjectOutputStream oos = new ObjectOutputStream(new ByteBufferOutputStream(buffer))) {
             oos.writeObject(request);
-            oos.flush();
-            byte[] bytes = baos.toByteArray();
-            return ByteBuffer.wrap(bytes);
         } catch (IOException e) {
             console.printError("Serialization error: " + e.getMessage());
-            return null;
+            return false;
+        } catch (BufferOverflowException e) {
+            console.printError("Serialization error: запрос не помещается в датаграмму");
+            return false;
         }
+        buffer.flip();
+        return true;
     }
 
-    private Response deserialize(ByteBuffer buffer) throws IOException, ClassNotFoundException {
-        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(buffer.array(), 0, buffer.limit()))) {
-            return (Response) ois.readObject();
+    private Object deserialize(ByteBuffer buffer) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteBufferInputStream(buffer))) {
+            return ois.readObject();
         }
     }
 }
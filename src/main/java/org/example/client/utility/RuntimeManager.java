@@ -84,6 +84,8 @@ public class RuntimeManager {
                             this.printResponse(newResponse);
                         }
                     }
+                    case ASK_CONFIRMATION -> this.printResponse(client.sendAndAskResponse(new Request(
+                            userCommand[0].trim(), "confirm " + response.getContinuationToken(), user)));
                     case EXIT -> throw new ExitObliged();
                     case EXECUTE_SCRIPT -> {
                         Console.setFileMode(true);
@@ -123,8 +125,16 @@ public class RuntimeManager {
                 } else {
                     console.println(response.getResponse() + "\n" + response.getCollection().toString());
                 }
+                if (!Objects.isNull(response.getChanges())) {
+                    response.getChanges().forEach(change -> console.println(change.toString()));
+                }
+                if (!Objects.isNull(response.getContinuationToken())) {
+                    console.println(ConsoleColors.toColor("Следующая страница: show <размер_страницы> "
+                            + response.getContinuationToken(), ConsoleColors.PURPLE));
+                }
             }
             case ERROR -> console.printError(response.getResponse());
+            case RESYNC -> console.println(ConsoleColors.toColor(response.getResponse(), ConsoleColors.YELLOW));
             case WRONG_ARGUMENTS -> console.printError("Неверное использование команды!");
             default -> {}
         }
@@ -175,6 +185,8 @@ public class RuntimeManager {
                             this.printResponse(newResponse);
                         }
                     }
+                    case ASK_CONFIRMATION -> this.printResponse(client.sendAndAskResponse(new Request(
+                            userCommand[0].trim(), "confirm " + response.getContinuationToken(), user)));
                     case EXIT -> throw new ExitObliged();
                     case EXECUTE_SCRIPT -> {
                         this.fileExecution(response.getResponse());
@@ -0,0 +1,25 @@
+package org.example.common.network;
+
+import org.example.common.models.StudyGroup;
+
+import java.io.Serializable;
+
+/**
+ * One change of the collection, stamped with the collection version it produced.
+ * Applying events by id (ADD and UPDATE as upserts, REMOVE as delete) is idempotent,
+ * so replaying events already contained in a snapshot is harmless.
+ *
+ * @param element the element after the change; null for REMOVE
+ */
+public record ChangeEvent(long version, Type type, int id, StudyGroup element) implements Serializable {
+    public enum Type {
+        ADD,
+        UPDATE,
+        REMOVE
+    }
+
+    @Override
+    public String toString() {
+        return "v" + version + " " + type + " " + id + (element == null ? "" : " " + element);
+    }
+}
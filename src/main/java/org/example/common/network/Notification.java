@@ -0,0 +1,15 @@
+package org.example.common.network;
+
+import java.io.Serializable;
+
+/**
+ * Change pushed by the server to a subscribed client, outside of any request.
+ * Sequence numbers are per subscriber and consecutive, so a jump means datagrams were lost
+ * and the client should catch up with sync.
+ */
+public record Notification(long sequence, ChangeEvent event) implements Serializable {
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + event;
+    }
+}
@@ -3,13 +3,28 @@ package org.example.common.network;
 import org.example.common.models.StudyGroup;
 
 import java.io.Serializable;
+import java.net.SocketAddress;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 public class Request implements Serializable {
     private final String commandName;
     private String args = "";
     private StudyGroup object = null;
     private User user;
+    /**
+     * Sender address, set by the server on receipt; never taken from the client.
+     */
+    private transient SocketAddress clientAddress;
+    /**
+     * How long the client waits for the response, in milliseconds; 0 if it waits forever.
+     * A budget rather than a point in time, so the client and server clocks need not agree.
+     */
+    private long timeoutMillis;
+    /**
+     * {@link System#nanoTime()} after which the response is useless, set by the server on receipt; 0 if none.
+     */
+    private transient long deadline;
 
     public Request(String commandName, String args, User user) {
         this.commandName = commandName.trim();
@@ -50,6 +65,43 @@ public class Request implements Serializable {
         return user;
     }
 
+    public SocketAddress getClientAddress() {
+        return clientAddress;
+    }
+
+    public void setClientAddress(SocketAddress clientAddress) {
+        this.clientAddress = clientAddress;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Starts the client's time budget.
+     * @param receivedAt {@link System#nanoTime()} when the datagram was received
+     */
+    public void markReceived(long receivedAt) {
+        if (timeoutMillis <= 0) return;
+        long end = receivedAt + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.deadline = end == 0 ? 1 : end;
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} deadline, or 0 if the request has none
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    public boolean isExpired() {
+        return deadline != 0 && System.nanoTime() - deadline >= 0;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
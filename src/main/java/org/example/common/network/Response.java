@@ -5,12 +5,21 @@ import org.example.common.models.StudyGroup;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
 
 public class Response implements Serializable {
     private final StatusCode status;
     private String response = "";
     private Collection<StudyGroup> collection;
+    private String continuationToken;
+    private long epoch;
+    private long version;
+    private List<ChangeEvent> changes;
+    /**
+     * Serialized form kept by the server for a response it sends more than once; never transmitted.
+     */
+    private transient byte[] encoded;
 
     public Response(StatusCode status) {
         this.status = status;
@@ -29,6 +38,35 @@ public class Response implements Serializable {
                 .toList();
     }
 
+    /**
+     * Elements in the order the caller put them in, such as a page or a ranking, without sorting them again.
+     * The token asks the server for the next page and is null when there is none.
+     */
+    public Response(StatusCode status, String response, List<StudyGroup> ordered, String continuationToken) {
+        this(status, response);
+        this.collection = List.copyOf(ordered);
+        this.continuationToken = continuationToken;
+    }
+
+    /**
+     * Asks for a follow-up request that carries the token, see {@link StatusCode#ASK_CONFIRMATION}.
+     */
+    public Response(StatusCode status, String response, String continuationToken) {
+        this(status, response);
+        this.continuationToken = continuationToken;
+    }
+
+    /**
+     * Answer to a sync: the changes after the client's version and the version they lead to,
+     * which is only meaningful within the server run named by the epoch.
+     */
+    public Response(StatusCode status, String response, List<ChangeEvent> changes, long epoch, long version) {
+        this(status, response);
+        this.changes = changes;
+        this.epoch = epoch;
+        this.version = version;
+    }
+
     public StatusCode getStatus() {
         return status;
     }
@@ -41,16 +79,42 @@ public class Response implements Serializable {
         return collection;
     }
 
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<ChangeEvent> getChanges() {
+        return changes;
+    }
+
+    public byte[] getEncoded() {
+        return encoded;
+    }
+
+    public void setEncoded(byte[] encoded) {
+        this.encoded = encoded;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof Response response1)) return false;
-        return status == response1.status && Objects.equals(response, response1.response) && Objects.equals(collection, response1.collection);
+        return status == response1.status && Objects.equals(response, response1.response) && Objects.equals(collection, response1.collection)
+                && Objects.equals(continuationToken, response1.continuationToken)
+                && epoch == response1.epoch && version == response1.version && Objects.equals(changes, response1.changes);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(status, response, collection);
+        return Objects.hash(status, response, collection, continuationToken, epoch, version, changes);
     }
 
     @Override
@@ -26,5 +26,9 @@ public enum StatusCode implements Serializable {
     ASK_OBJECT,
     LOGIN_FAILED,
     ERROR_AUTHENTICATION,
-    ERROR_USER_EXISTS
+    ERROR_USER_EXISTS,
+    /** The change log no longer reaches the client's version: reload the collection, then sync from the version sent. */
+    RESYNC,
+    /** Repeat the command as "&lt;command&gt; confirm &lt;token&gt;" with the continuation token, proving the answer reached the client. */
+    ASK_CONFIRMATION
 }
@@ -0,0 +1,32 @@
+package org.example.common.utility;
+
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes straight into a buffer, from its position up to its limit; the buffer never grows.
+ */
+public class ByteBufferOutputStream extends OutputStream {
+    private final ByteBuffer buffer;
+
+    public ByteBufferOutputStream(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * @throws BufferOverflowException if the buffer is full
+     */
+    @Override
+    public void write(int b) {
+        buffer.put((byte) b);
+    }
+
+    /**
+     * @throws BufferOverflowException if the bytes do not fit; nothing is written then
+     */
+    @Override
+    public void write(byte[] b, int off, int len) {
+        buffer.put(b, off, len);
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.common.utility;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of equally sized direct buffers for datagram I/O.
+ * A buffer is handed out as a {@link Lease} with a reference count; whoever passes the buffer on
+ * retains the lease, everyone releases it when done, and the last release returns the buffer to the pool.
+ */
+public final class DirectBufferPool {
+    /**
+     * Fits any UDP datagram.
+     */
+    public static final int DATAGRAM_BUFFER_SIZE = 65536;
+
+    private static final DirectBufferPool shared = new DirectBufferPool(DATAGRAM_BUFFER_SIZE, 64);
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final LongAdder allocated = new LongAdder();
+
+    /**
+     * @param maxPooled the most idle buffers kept; more may be leased at once, the surplus is left to the GC
+     */
+    public DirectBufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    public static DirectBufferPool shared() {
+        return shared;
+    }
+
+    /**
+     * @return a lease of a cleared buffer, with a reference count of one
+     */
+    public Lease acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer != null) {
+            pooled.decrementAndGet();
+        } else {
+            buffer = ByteBuffer.allocateDirect(bufferSize);
+            allocated.increment();
+        }
+        buffer.clear();
+        return new Lease(buffer);
+    }
+
+    /**
+     * @return how many buffers the pool has ever allocated
+     */
+    public long allocatedBuffers() {
+        return allocated.sum();
+    }
+
+    private void recycle(ByteBuffer buffer) {
+        if (pooled.incrementAndGet() <= maxPooled) {
+            free.offer(buffer);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+
+    public final class Lease implements AutoCloseable {
+        private final ByteBuffer buffer;
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        private Lease(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        public ByteBuffer buffer() {
+            if (references.get() <= 0) throw new IllegalStateException("buffer already released");
+            return buffer;
+        }
+
+        /**
+         * Adds a holder, who must release the lease as well.
+         */
+        public Lease retain() {
+            if (references.getAndIncrement() <= 0) throw new IllegalStateException("buffer already released");
+            return this;
+        }
+
+        public void release() {
+            int left = references.decrementAndGet();
+            if (left == 0) {
+                recycle(buffer);
+            } else if (left < 0) {
+                throw new IllegalStateException("buffer released more times than retained");
+            }
+        }
+
+        @Override
+        public void close() {
+            release();
+        }
+    }
+}
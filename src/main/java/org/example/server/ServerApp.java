@@ -7,6 +7,7 @@ import org.example.server.network.*;
 import org.example.server.commands.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -18,6 +19,51 @@ public class ServerApp extends Thread {
     public static final String DATABASE_URL = "jdbc:postgresql://localhost:5432/studs";
     public static final String DATABASE_URL_HELIOS = "jdbc:postgresql://pg:5432/studs";
     public static final String DATABASE_CONFIG_PATH = "C:\\Users\\Mega-Pc\\Desktop\\programming\\lab50\\dbconfig.cfg";
+    // Хранилище кэша коллекции: heap (объекты), columnar (примитивные колонки) или offheap (вне кучи)
+    public static final String STORAGE_MODE = System.getProperty("studygroup.storage", "heap");
+    // Файл снимка для offheap: если задан, хранилище отображается в память из этого файла
+    public static final String STORAGE_FILE = System.getProperty("studygroup.storage.file");
+    // Размер ячейки пространственной сетки для запросов near/bbox (в единицах координат)
+    public static final double SPATIAL_CELL_SIZE = Double.parseDouble(System.getProperty("studygroup.spatial.cell", "50"));
+    // Начиная с этого размера массовые просмотры и сортировки коллекции выполняются параллельно.
+    // Значение по умолчанию не измерено: точку, где параллельный просмотр обгоняет последовательный,
+    // нужно подбирать на целевой машине
+    public static final int PARALLEL_SCAN_THRESHOLD = Integer.getInteger("studygroup.parallel.threshold", 20_000);
+    // Число потоков отдельного пула параллельных просмотров (не пересекается с пулом обработки запросов)
+    public static final int PARALLEL_SCAN_THREADS = Integer.getInteger("studygroup.parallel.threads",
+            Runtime.getRuntime().availableProcessors());
+    // Сколько последних изменений коллекции хранится для sync; более старые версии получают полную пересинхронизацию
+    public static final int CHANGE_LOG_SIZE = 10_000;
+    // Наибольшее число изменений в одном ответе sync; остальные клиент забирает следующим sync
+    public static final int SYNC_BATCH_SIZE = 256;
+    // Срок аренды подписки на изменения, мс; клиент продлевает её повторной командой subscribe
+    public static final long SUBSCRIPTION_LEASE = 5 * 60 * 1000;
+    // Сколько действует код подтверждения подписки, мс
+    public static final long SUBSCRIPTION_CONFIRM_TIMEOUT = 30 * 1000;
+    // Наибольшее число подписок (и неподтвержденных запросов подписки) на сервере
+    public static final int MAX_SUBSCRIPTIONS = 1024;
+    // Наибольшее число подписок с одного IP-адреса
+    public static final int MAX_SUBSCRIPTIONS_PER_HOST = 4;
+    // Наибольшее число изменений в очереди рассылки подписчикам; лишние отбрасываются, клиенты догоняют через sync
+    public static final int SUBSCRIPTION_QUEUE = 4096;
+    // Сколько сериализованных ответов (show, info, ...) кэшируется для одной версии коллекции
+    public static final int RESPONSE_CACHE_SIZE = 512;
+    // Число потоков, десериализующих принятые датаграммы
+    public static final int DECODE_THREADS = Integer.getInteger("studygroup.decoders",
+            Runtime.getRuntime().availableProcessors());
+    // Сколько принятых датаграмм ждут десериализации; при переполнении новые отбрасываются без ответа
+    public static final int DECODE_QUEUE = 1024;
+    // Число потоков, исполняющих запросы из всех очередей
+    public static final int REQUEST_WORKERS = Integer.getInteger("studygroup.workers",
+            Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+    // Очереди по классам команд: "приоритет,параллельность,длина очереди"; выше приоритет - раньше обслуживается
+    public static final Map<CommandClass, RequestScheduler.LaneConfig> REQUEST_LANES = Map.of(
+            CommandClass.CHEAP_READ, RequestScheduler.LaneConfig.parse(
+                    System.getProperty("studygroup.lane.cheap", "3," + REQUEST_WORKERS + ",1024")),
+            CommandClass.WRITE, RequestScheduler.LaneConfig.parse(
+                    System.getProperty("studygroup.lane.write", "2," + REQUEST_WORKERS + ",512")),
+            CommandClass.HEAVY_READ, RequestScheduler.LaneConfig.parse(
+                    System.getProperty("studygroup.lane.heavy", "1," + Math.max(1, REQUEST_WORKERS / 2) + ",256")));
 
     //--------------------------------------------------------------------------------------------------
 
@@ -38,8 +84,14 @@ public class ServerApp extends Thread {
         }
 
         CollectionManager collectionManager = new CollectionManager(DatabaseHandler.getDatabaseManager());
+        // снимок коллекции в файле сохраняется при остановке сервера
+        Runtime.getRuntime().addShutdownHook(new Thread(collectionManager::checkpoint, "collection-checkpoint"));
+        SubscriptionManager subscriptionManager = new SubscriptionManager(SUBSCRIPTION_LEASE, SUBSCRIPTION_CONFIRM_TIMEOUT,
+                MAX_SUBSCRIPTIONS, MAX_SUBSCRIPTIONS_PER_HOST, SUBSCRIPTION_QUEUE);
+        collectionManager.setSubscriptionManager(subscriptionManager);
 
         CommandManager commandManager = new CommandManager(DatabaseHandler.getDatabaseManager());
+        commandManager.setResponseCache(new ResponseCache(collectionManager::getVersion, RESPONSE_CACHE_SIZE));
         commandManager.addCommand(List.of(
                 new ServerHistoryCommand(commandManager),
                 new ServerHelpCommand(commandManager),
@@ -55,10 +107,23 @@ public class ServerApp extends Thread {
                 new Ping(),
                 new ServerExecuteScript(),
                 new ServerAddIfMinCommand(collectionManager),
-                new ServerRemoveLowerCommand(collectionManager)
+                new ServerRemoveLowerCommand(collectionManager),
+                new ServerRemoveAnyByFormCommand(collectionManager, Logger.getLogger(ServerRemoveAnyByFormCommand.class.getName())),
+                new ServerFilterCommand(collectionManager),
+                new ServerAggregateCommand(collectionManager),
+                new ServerRangeCommand(collectionManager),
+                new ServerRemoveRangeCommand(collectionManager),
+                new ServerNearCommand(collectionManager),
+                new ServerBoundingBoxCommand(collectionManager),
+                new ServerSearchCommand(collectionManager),
+                new ServerTopCommand(collectionManager),
+                new ServerSyncCommand(collectionManager),
+                new ServerSubscribeCommand(subscriptionManager, collectionManager, DatabaseHandler.getDatabaseManager()),
+                new ServerUnsubscribeCommand(subscriptionManager, DatabaseHandler.getDatabaseManager()),
+                new ServerStatsCommand()
 
         ));
-        Server server = new Server(commandManager, DatabaseHandler.getDatabaseManager());
+        Server server = new Server(commandManager, DatabaseHandler.getDatabaseManager(), subscriptionManager);
         try {
             server.run();
         } catch (Exception e) {
@@ -1,5 +1,7 @@
 package org.example.server.commands;
 
+import org.example.common.network.Request;
+
 import java.util.Objects;
 
 /**
@@ -22,6 +24,21 @@ public abstract class Command implements Executable {
         return description;
     }
 
+    /**
+     * @return the cost class the command is scheduled by; a command that changes nothing should override it
+     */
+    public CommandClass getCommandClass() {
+        return CommandClass.WRITE;
+    }
+
+    /**
+     * @return true if the response to this request depends only on its arguments and the collection,
+     *         so equal requests at the same collection version may share one response
+     */
+    public boolean isCacheable(Request request) {
+        return false;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
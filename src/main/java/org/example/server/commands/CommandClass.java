@@ -0,0 +1,19 @@
+package org.example.server.commands;
+
+/**
+ * Cost class of a command; the server runs each class in its own lane.
+ */
+public enum CommandClass {
+    /**
+     * Reads little or nothing: ping, help, info.
+     */
+    CHEAP_READ,
+    /**
+     * Reads, sorts or serializes a large part of the collection.
+     */
+    HEAVY_READ,
+    /**
+     * Changes the collection or the database.
+     */
+    WRITE
+}
@@ -12,6 +12,11 @@ public class Ping extends Command {
         super("ping", ": пингануть сервер");
     }
 
+    @Override
+    public CommandClass getCommandClass() {
+        return CommandClass.CHEAP_READ;
+    }
+
     /**
      * Исполнить команду
      * @param request запрос клиента
@@ -0,0 +1,29 @@
+package org.example.server.commands;
+
+import org.example.server.core.StudyGroupQuery;
+import org.example.server.exceptions.IllegalArguments;
+
+/**
+ * Arguments '&lt;studentsCount|shouldBeExpelled&gt; &lt;min&gt; &lt;max&gt;' of the range commands
+ */
+record RangeArguments(StudyGroupQuery.NumericField field, long min, long max) {
+    static final String USAGE = "<studentsCount|shouldBeExpelled> <min> <max>";
+
+    static RangeArguments parse(String args) throws IllegalArguments {
+        String[] parts = args.trim().split("\\s+");
+        if (parts.length != 3) throw new IllegalArguments();
+        StudyGroupQuery.NumericField field = StudyGroupQuery.NumericField.byLabel(parts[0])
+                .filter(StudyGroupQuery.NumericField::isIndexed)
+                .orElseThrow(IllegalArguments::new);
+        try {
+            return new RangeArguments(field, Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArguments(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return min + " <= " + field.label() + " <= " + max;
+    }
+}
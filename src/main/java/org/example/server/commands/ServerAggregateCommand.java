@@ -0,0 +1,72 @@
+package org.example.server.commands;
+
+import org.example.common.network.Request;
+import org.example.common.network.Response;
+import org.example.common.network.StatusCode;
+import org.example.common.utility.ConsoleColors;
+import org.example.server.core.CollectionAggregates;
+import org.example.server.core.CollectionManager;
+import org.example.server.exceptions.IllegalArguments;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Команда 'aggregate'
+ * Выводит количество, сумму, минимум и максимум studentsCount и shouldBeExpelled по всей коллекции
+ * или в разрезе формы обучения, семестра или владельца
+ */
+public class ServerAggregateCommand extends Command {
+    private final CollectionManager collectionManager;
+
+    public ServerAggregateCommand(CollectionManager collectionManager) {
+        super("aggregate", "[form|semester|owner]: вывести количество, сумму, минимум и максимум studentsCount и shouldBeExpelled (по всей коллекции или по группам)");
+        this.collectionManager = collectionManager;
+    }
+
+    @Override
+    public CommandClass getCommandClass() {
+        return CommandClass.HEAVY_READ;
+    }
+
+    /**
+     * Исполнить команду
+     * @param request аргументы команды
+     * @throws IllegalArguments неверные аргументы команды
+     */
+    @Override
+    public Response execute(Request request) throws IllegalArguments {
+        String args = request.getArgs().trim();
+        if (args.isEmpty()) {
+            return new Response(StatusCode.OK, "Вся коллекция: " + format(collectionManager.aggregateTotal()));
+        }
+        Optional<CollectionAggregates.Dimension> dimension = CollectionAggregates.Dimension.byLabel(args);
+        if (dimension.isEmpty()) {
+            return new Response(StatusCode.ERROR, "Группировка возможна только по form, semester или owner");
+        }
+        Map<Object, CollectionAggregates.Summary> groups = collectionManager.aggregateBy(dimension.get());
+        if (groups.isEmpty()) return new Response(StatusCode.OK, "Коллекция пуста");
+
+        StringBuilder result = new StringBuilder("Группировка по " + dimension.get().label() + ":\n");
+        groups.entrySet().stream()
+                .sorted(Comparator.comparing(entry -> Objects.toString(entry.getKey(), "")))
+                .forEach(entry -> result
+                        .append(ConsoleColors.toColor(Objects.toString(entry.getKey(), "не задано") + ": ", ConsoleColors.GREEN))
+                        .append(format(entry.getValue()))
+                        .append('\n'));
+        return new Response(StatusCode.OK, result.toString());
+    }
+
+    static String format(CollectionAggregates.Summary summary) {
+        return "групп " + summary.count()
+                + ", студентов " + summary.studentsSum() + range(summary.studentsMin(), summary.studentsMax())
+                + ", к отчислению " + summary.expelledSum() + " в " + summary.expelledCount() + " группах"
+                + range(summary.expelledMin(), summary.expelledMax());
+    }
+
+    private static String range(Long min, Long max) {
+        return min == null ? "" : " (мин " + min + ", макс " + max + ")";
+    }
+}
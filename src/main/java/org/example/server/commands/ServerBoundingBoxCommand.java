@@ -0,0 +1,54 @@
+package org.example.server.commands;
+
+import org.example.common.models.StudyGroup;
+import org.example.common.network.Request;
+import org.example.common.network.Response;
+import org.example.common.network.StatusCode;
+import org.example.server.core.CollectionIndexes;
+import org.example.server.core.CollectionManager;
+import org.example.server.exceptions.IllegalArguments;
+
+import java.util.List;
+
+/**
+ * Команда 'bbox'
+ * Выводит элементы, точка которых лежит в прямоугольнике (по координатам группы или по местоположению старосты)
+ */
+public class ServerBoundingBoxCommand extends Command {
+    private final CollectionManager collectionManager;
+
+    public ServerBoundingBoxCommand(CollectionManager collectionManager) {
+        super("bbox", "<coordinates|location> <minX> <minY> <maxX> <maxY>: вывести элементы внутри прямоугольника");
+        this.collectionManager = collectionManager;
+    }
+
+    @Override
+    public CommandClass getCommandClass() {
+        return CommandClass.HEAVY_READ;
+    }
+
+    /**
+     * Исполнить команду
+     * @param request аргументы команды
+     * @throws IllegalArguments неверные аргументы команды
+     */
+    @Override
+    public Response execute(Request request) throws IllegalArguments {
+        String[] args = request.getArgs().trim().split("\\s+");
+        if (args.length != 5) throw new IllegalArguments();
+        CollectionIndexes.SpatialField field = CollectionIndexes.SpatialField.byLabel(args[0]).orElseThrow(IllegalArguments::new);
+        double[] box = new double[4];
+        try {
+            for (int i = 0; i < 4; i++) box[i] = Double.parseDouble(args[i + 1]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArguments(e);
+        }
+        for (double bound : box) {
+            if (!Double.isFinite(bound)) throw new IllegalArguments();
+        }
+
+        List<StudyGroup> groups = collectionManager.inBoundingBox(field, box[0], box[1], box[2], box[3]);
+        if (groups.isEmpty()) return new Response(StatusCode.OK, "В прямоугольнике нет элементов");
+        return new Response(StatusCode.OK, "Элементов в прямоугольнике: " + groups.size(), groups);
+    }
+}
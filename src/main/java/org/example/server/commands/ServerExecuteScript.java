@@ -15,6 +15,11 @@ public class ServerExecuteScript extends Command {
         super("execute_script", ": выполнить скрипт");
     }
 
+    @Override
+    public CommandClass getCommandClass() {
+        return CommandClass.CHEAP_READ;
+    }
+
     /**
      * Execute the command
      * @param request client request
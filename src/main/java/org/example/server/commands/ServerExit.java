@@ -15,6 +15,11 @@ public class ServerExit extends Command  {
         super("exit", ": завершить программу (без сохранения в файл)");
     }
 
+    @Override
+    public CommandClass getCommandClass() {
+        return CommandClass.CHEAP_READ;
+    }
+
     /**
      * Execute command
      * @param request command arguments
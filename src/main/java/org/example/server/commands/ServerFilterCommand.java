@@ -0,0 +1,49 @@
+package org.example.server.commands;
+
+import org.example.common.network.Request;
+import org.example.common.network.Response;
+import org.example.common.network.StatusCode;
+import org.example.server.core.CollectionManager;
+import org.example.server.core.QueryPlanner;
+import org.example.server.core.StudyGroupQuery;
+import org.example.server.exceptions.IllegalArguments;
+
+/**
+ * Команда 'filter'
+ * Выводит только элементы коллекции, удовлетворяющие условию; условие вычисляется на сервере
+ */
+public class ServerFilterCommand extends Command {
+    private final QueryPlanner queryPlanner;
+
+    public ServerFilterCommand(CollectionManager collectionManager) {
+        super("filter", "<условие> [and <условие>...]: вывести элементы, удовлетворяющие условию " +
+                "(studentsCount/shouldBeExpelled =,<,<=,>,>= число; form, semester, eyeColor, hairColor, nationality, owner = значение; name = или ^= префикс)");
+        this.queryPlanner = new QueryPlanner(collectionManager);
+    }
+
+    @Override
+    public CommandClass getCommandClass() {
+        return CommandClass.HEAVY_READ;
+    }
+
+    /**
+     * Исполнить команду
+     * @param request аргументы команды
+     * @throws IllegalArguments неверные аргументы команды
+     */
+    @Override
+    public Response execute(Request request) throws IllegalArguments {
+        StudyGroupQuery query;
+        try {
+            query = StudyGroupQuery.parse(request.getArgs());
+        } catch (IllegalArguments e) {
+            return new Response(StatusCode.ERROR, e.getMessage());
+        }
+        QueryPlanner.Result result = queryPlanner.execute(query);
+        if (result.rows().isEmpty()) {
+            return new Response(StatusCode.OK, "Нет элементов, удовлетворяющих условию " + query);
+        }
+        return new Response(StatusCode.OK,
+                "Найдено элементов: " + result.rows().size() + " (план: " + result.plan() + ")", result.rows());
+    }
+}
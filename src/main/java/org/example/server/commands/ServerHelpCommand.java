@@ -23,6 +23,11 @@ public class ServerHelpCommand extends Command { // Extends your abstract Comman
         this.commandManager = commandManager;
     }
 
+    @Override
+    public CommandClass getCommandClass() {
+        return CommandClass.CHEAP_READ;
+    }
+
     /**
      * Executes the command to provide help information.
      * @param request client request (arguments are ignored for basic help).
@@ -19,6 +19,11 @@ public class ServerHistoryCommand extends Command{
         this.commandManager = commandManager;
     }
 
+    @Override
+    public CommandClass getCommandClass() {
+        return CommandClass.CHEAP_READ;
+    }
+
     /**
      * Исполнить команду
      * @param request аргументы команды
@@ -20,6 +20,16 @@ public class ServerInfoCommand extends Command{
         this.collectionManager = collectionManager;
     }
 
+    @Override
+    public boolean isCacheable(Request request) {
+        return true;
+    }
+
+    @Override
+    public CommandClass getCommandClass() {
+        return CommandClass.CHEAP_READ;
+    }
+
     /**
      * Исполнить команду
      * @param request аргументы команды
@@ -37,8 +47,11 @@ public class ServerInfoCommand extends Command{
         String stringBuilder = "Сведения о коллекции: \n" +
                 ConsoleColors.toColor("Тип: ", ConsoleColors.GREEN) + collectionManager.collectionType() + "\n" +
                 ConsoleColors.toColor("Количество элементов: ", ConsoleColors.GREEN) + collectionManager.collectionSize() + "\n" +
+                ConsoleColors.toColor("Версия коллекции: ", ConsoleColors.GREEN) + collectionManager.getVersionToken() + "\n" +
                 ConsoleColors.toColor("Дата последней инициализации: ", ConsoleColors.GREEN) + lastInitTime + "\n" +
-                ConsoleColors.toColor("Дата последнего изменения: ", ConsoleColors.GREEN) + lastSaveTime + "\n";
+                ConsoleColors.toColor("Дата последнего изменения: ", ConsoleColors.GREEN) + lastSaveTime + "\n" +
+                ConsoleColors.toColor("Итоги: ", ConsoleColors.GREEN) + ServerAggregateCommand.format(collectionManager.aggregateTotal()) + "\n" +
+                ConsoleColors.toColor("Дедупликация строк: ", ConsoleColors.GREEN) + collectionManager.stringDeduplicationReport() + "\n";
         return new Response(StatusCode.OK, stringBuilder);
     }
 }
\ No newline at end of file
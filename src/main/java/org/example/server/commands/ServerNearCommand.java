@@ -0,0 +1,71 @@
+package org.example.server.commands;
+
+import org.example.common.models.StudyGroup;
+import org.example.common.network.Request;
+import org.example.common.network.Response;
+import org.example.common.network.StatusCode;
+import org.example.server.core.CollectionIndexes;
+import org.example.server.core.CollectionManager;
+import org.example.server.core.SpatialGridIndex;
+import org.example.server.exceptions.IllegalArguments;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Команда 'near'
+ * Выводит k элементов, ближайших к точке по координатам группы или по местоположению старосты
+ */
+public class ServerNearCommand extends Command {
+    static final int MAX_NEIGHBOURS = 1000;
+
+    private final CollectionManager collectionManager;
+
+    public ServerNearCommand(CollectionManager collectionManager) {
+        super("near", "<coordinates|location> <x> <y> <k>: вывести k элементов, ближайших к точке (x, y)");
+        this.collectionManager = collectionManager;
+    }
+
+    @Override
+    public CommandClass getCommandClass() {
+        return CommandClass.HEAVY_READ;
+    }
+
+    /**
+     * Исполнить команду
+     * @param request аргументы команды
+     * @throws IllegalArguments неверные аргументы команды
+     */
+    @Override
+    public Response execute(Request request) throws IllegalArguments {
+        String[] args = request.getArgs().trim().split("\\s+");
+        if (args.length != 4) throw new IllegalArguments();
+        CollectionIndexes.SpatialField field = CollectionIndexes.SpatialField.byLabel(args[0]).orElseThrow(IllegalArguments::new);
+        double x, y;
+        int k;
+        try {
+            x = Double.parseDouble(args[1]);
+            y = Double.parseDouble(args[2]);
+            k = Integer.parseInt(args[3]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArguments(e);
+        }
+        if (!Double.isFinite(x) || !Double.isFinite(y)) throw new IllegalArguments();
+        if (k <= 0 || k > MAX_NEIGHBOURS) {
+            return new Response(StatusCode.ERROR, "k должно быть от 1 до " + MAX_NEIGHBOURS);
+        }
+
+        List<SpatialGridIndex.Neighbour> neighbours = collectionManager.nearest(field, x, y, k);
+        if (neighbours.isEmpty()) return new Response(StatusCode.OK, "Коллекция пуста");
+        StringBuilder order = new StringBuilder("Ближайшие к (" + x + ", " + y + ") по " + field.label() + ":\n");
+        List<StudyGroup> groups = new ArrayList<>(neighbours.size());
+        for (SpatialGridIndex.Neighbour neighbour : neighbours) {
+            StudyGroup studyGroup = collectionManager.getById(neighbour.id());
+            if (studyGroup == null) continue; // removed since the search
+            groups.add(studyGroup);
+            order.append(groups.size()).append(". id ").append(neighbour.id())
+                    .append(String.format(" — расстояние %.2f%n", neighbour.distance()));
+        }
+        return new Response(StatusCode.OK, order.toString(), groups, null);
+    }
+}
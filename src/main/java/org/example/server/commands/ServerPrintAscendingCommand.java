@@ -20,6 +20,16 @@ public class ServerPrintAscendingCommand extends Command {
         this.logger = logger; // Assign the passed logger
     }
 
+    @Override
+    public boolean isCacheable(Request request) {
+        return true;
+    }
+
+    @Override
+    public CommandClass getCommandClass() {
+        return CommandClass.HEAVY_READ;
+    }
+
     /**
      * Executes the 'print_ascending' command.
      * Retrieves all study groups sorted by their natural order (ID) from the CollectionManager.
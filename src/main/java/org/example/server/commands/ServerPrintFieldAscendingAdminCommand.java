@@ -25,6 +25,16 @@ public class ServerPrintFieldAscendingAdminCommand extends Command {
         this.logger = logger;
     }
 
+    @Override
+    public boolean isCacheable(Request request) {
+        return true;
+    }
+
+    @Override
+    public CommandClass getCommandClass() {
+        return CommandClass.HEAVY_READ;
+    }
+
     @Override
     public Response execute(Request request) {
         logger.log(Level.INFO, "Executing 'print_field_ascending_group_admin' command for user: " +
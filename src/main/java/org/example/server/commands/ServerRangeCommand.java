@@ -0,0 +1,41 @@
+package org.example.server.commands;
+
+import org.example.common.models.StudyGroup;
+import org.example.common.network.Request;
+import org.example.common.network.Response;
+import org.example.common.network.StatusCode;
+import org.example.server.core.CollectionManager;
+import org.example.server.exceptions.IllegalArguments;
+
+import java.util.List;
+
+/**
+ * Команда 'range'
+ * Выводит элементы, у которых значение числового поля лежит в заданном диапазоне (по индексу, без полного просмотра)
+ */
+public class ServerRangeCommand extends Command {
+    private final CollectionManager collectionManager;
+
+    public ServerRangeCommand(CollectionManager collectionManager) {
+        super("range", RangeArguments.USAGE + ": вывести элементы, у которых значение поля лежит в диапазоне [min, max]");
+        this.collectionManager = collectionManager;
+    }
+
+    @Override
+    public CommandClass getCommandClass() {
+        return CommandClass.HEAVY_READ;
+    }
+
+    /**
+     * Исполнить команду
+     * @param request аргументы команды
+     * @throws IllegalArguments неверные аргументы команды
+     */
+    @Override
+    public Response execute(Request request) throws IllegalArguments {
+        RangeArguments range = RangeArguments.parse(request.getArgs());
+        List<StudyGroup> groups = collectionManager.findInRange(range.field(), range.min(), range.max());
+        if (groups.isEmpty()) return new Response(StatusCode.OK, "Нет элементов, для которых " + range);
+        return new Response(StatusCode.OK, "Элементы, для которых " + range + ": " + groups.size(), groups);
+    }
+}
@@ -7,6 +7,7 @@ import org.example.common.network.StatusCode;
 import org.example.common.network.User;
 import org.example.server.core.CollectionManager;
 
+import java.util.Arrays;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -26,13 +27,12 @@ public class ServerRemoveAnyByFormCommand extends Command {
 
     /**
      * Executes the command to remove an element by its form of education, checking ownership.
-     * @param request client request, containing User info and FormOfEducation as the object argument.
+     * @param request client request, containing User info and the FormOfEducation name as the string argument.
      * @return Response object indicating success or failure.
      */
     @Override
-    public Response execute(Request request) /* throws IllegalArguments - if you re-add */ {
+    public Response execute(Request request) {
         User authenticatedUser = request.getUser();
-        Object argumentObject = request.getObject(); // The FormOfEducation enum is expected here
 
         // Authentication Check
         if (authenticatedUser == null) {
@@ -40,41 +40,38 @@ public class ServerRemoveAnyByFormCommand extends Command {
             return new Response(StatusCode.ERROR_AUTHENTICATION, "User not authenticated.");
         }
 
-        logger.log(Level.INFO, "User '" + authenticatedUser.getLogin() +
+        logger.log(Level.INFO, "User '" + authenticatedUser.name() +
                 "' executing 'remove_any_by_form_of_education' command.");
 
-        // Validate Argument Type
-        if (!(argumentObject instanceof FormOfEducation)) {
-            logger.log(Level.WARNING, "Invalid argument type for 'remove_any_by_form_of_education'. " +
-                    "Expected FormOfEducation enum, got: " +
-                    (argumentObject != null ? argumentObject.getClass().getName() : "null"));
-            return new Response(StatusCode.WRONG_ARGUMENTS, "Аргумент должен быть значением перечисления FormOfEducation.");
+        // Validate Argument: the request object is a StudyGroup, so the form comes as a string
+        String argument = request.getArgs() == null ? "" : request.getArgs().trim();
+        FormOfEducation parsedForm = null;
+        for (FormOfEducation form : FormOfEducation.values()) {
+            if (form.name().equalsIgnoreCase(argument)) parsedForm = form;
         }
-
-        //  Check for unexpected string arguments
-        if (request.getArgs() != null && !request.getArgs().trim().isEmpty()) {
-            logger.log(Level.WARNING, "'remove_any_by_form_of_education' received unexpected string arguments: " + request.getArgs());
-            return new Response(StatusCode.WRONG_ARGUMENTS, "Команда 'remove_any_by_form_of_education' не принимает строковых аргументов, только объект FormOfEducation.");
+        if (parsedForm == null) {
+            logger.log(Level.WARNING, "Invalid argument for 'remove_any_by_form_of_education': '" + argument + "'");
+            return new Response(StatusCode.WRONG_ARGUMENTS, "Аргумент должен быть значением перечисления FormOfEducation: "
+                    + Arrays.toString(FormOfEducation.values()));
         }
 
-
-        FormOfEducation formToMatch = (FormOfEducation) argumentObject;
-        logger.info("Attempting to remove an element with FormOfEducation: " + formToMatch + " for user: " + authenticatedUser.getLogin());
+        FormOfEducation formToMatch = parsedForm;
+        logger.info("Attempting to remove an element with FormOfEducation: " + formToMatch + " for user: " + authenticatedUser.name());
 
         try {
             // 4. Delegate to CollectionManager, passing the authenticated user for ownership check
             boolean removed = collectionManager.removeAnyByFormOfEducation(formToMatch, authenticatedUser);
 
             if (removed) {
-                logger.log(Level.INFO, "Successfully removed one element with form " + formToMatch + " owned by " + authenticatedUser.getLogin());
+                logger.log(Level.INFO, "Successfully removed one element with form " + formToMatch + " owned by " + authenticatedUser.name());
                 return new Response(StatusCode.OK, "Один элемент с формой обучения '" + formToMatch + "', принадлежащий вам, был удален.");
             } else {
-                logger.log(Level.INFO, "No element with form " + formToMatch + " owned by user " + authenticatedUser.getLogin() +
+                logger.log(Level.INFO, "No element with form " + formToMatch + " owned by user " + authenticatedUser.name() +
                         " found, or deletion failed. Nothing removed by this command.");
                 return new Response(StatusCode.OK, "Элемент с формой обучения '" + formToMatch + "', принадлежащий вам, не найден. Ничего не удалено.");
             }
         } catch (Exception e) { // Catch unexpected errors from CollectionManager
-            logger.log(Level.SEVERE, "Error executing 'remove_any_by_form_of_education' for user " + authenticatedUser.getLogin() +
+            logger.log(Level.SEVERE, "Error executing 'remove_any_by_form_of_education' for user " + authenticatedUser.name() +
                     " and form " + formToMatch + ": " + e.getMessage(), e);
             return new Response(StatusCode.ERROR_SERVER, "Внутренняя ошибка сервера при выполнении команды remove_any_by_form_of_education.");
         }
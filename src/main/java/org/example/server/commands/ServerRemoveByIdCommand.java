@@ -7,7 +7,6 @@ import org.example.common.network.Response;
 import org.example.common.network.StatusCode;
 import org.example.server.core.CollectionManager;
 import org.example.server.exceptions.IllegalArguments;
-import org.example.server.network.DatabaseHandler;
 
 
 
@@ -36,8 +35,7 @@ public class ServerRemoveByIdCommand extends Command implements CollectionEditor
         try {
             int id = Integer.parseInt(request.getArgs().trim());
             if (!collectionManager.checkExist(id)) throw new NoSuchId();
-            if (DatabaseHandler.getDatabaseManager().deleteObject(id, request.getUser())) {
-                collectionManager.removeElement(collectionManager.getById(id));
+            if (collectionManager.removeById(id, request.getUser())) {
                 return new Response(StatusCode.OK,"Объект удален успешно");
             } else{
                 return new Response(StatusCode.ERROR, "Выбранный объект не удален. Скорее всего он вам не принадлежит");
@@ -6,10 +6,7 @@ import org.example.common.network.StatusCode;
 import org.example.server.exceptions.ExceptionInFileMode;
 import org.example.server.exceptions.IllegalArguments;
 import org.example.server.core.CollectionManager;
-import org.example.common.models.StudyGroup;
-import org.example.server.network.DatabaseHandler;
 
-import java.util.Collection;
 import java.util.Objects;
 
 /**
@@ -40,14 +37,7 @@ public class ServerRemoveLowerCommand extends Command implements CollectionEdito
                 return new Response(StatusCode.ASK_OBJECT, "Для команды " + this.getName() + " требуется объект");
             }
 
-            Collection<StudyGroup> toRemove = collectionManager.getCollection().stream()
-                    .filter(Objects::nonNull)
-                    .filter(studyGroup -> studyGroup.compareTo(request.getObject()) <= -1) // changed to <= -1
-                    .filter(studyGroup -> studyGroup.getUserLogin().equals(request.getUser().name()))
-                    .filter(obj -> DatabaseHandler.getDatabaseManager().deleteObject(obj.getId(), request.getUser()))
-                    .toList();
-
-            collectionManager.removeElements(toRemove);
+            collectionManager.removeLower(request.getObject(), request.getUser());
             return new Response(StatusCode.OK, "Удалены элементы меньшие чем заданный");
 
         } catch (NoElements e) {
@@ -0,0 +1,33 @@
+package org.example.server.commands;
+
+import org.example.common.network.Request;
+import org.example.common.network.Response;
+import org.example.common.network.StatusCode;
+import org.example.server.core.CollectionManager;
+import org.example.server.exceptions.IllegalArguments;
+
+/**
+ * Команда 'remove_range'
+ * Удаляет из коллекции все принадлежащие пользователю элементы, у которых значение поля лежит в диапазоне
+ */
+public class ServerRemoveRangeCommand extends Command implements CollectionEditor {
+    private final CollectionManager collectionManager;
+
+    public ServerRemoveRangeCommand(CollectionManager collectionManager) {
+        super("remove_range", RangeArguments.USAGE + ": удалить из коллекции все ваши элементы, у которых значение поля лежит в диапазоне [min, max]");
+        this.collectionManager = collectionManager;
+    }
+
+    /**
+     * Исполнить команду
+     * @param request аргументы команды
+     * @throws IllegalArguments неверные аргументы команды
+     */
+    @Override
+    public Response execute(Request request) throws IllegalArguments {
+        RangeArguments range = RangeArguments.parse(request.getArgs());
+        int removed = collectionManager.removeInRange(range.field(), range.min(), range.max(), request.getUser());
+        if (removed < 0) return new Response(StatusCode.ERROR, "Не удалось удалить элементы из базы данных");
+        return new Response(StatusCode.OK, "Удалено элементов, для которых " + range + ": " + removed);
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.server.commands;
+
+import org.example.common.models.StudyGroup;
+import org.example.common.network.Request;
+import org.example.common.network.Response;
+import org.example.common.network.StatusCode;
+import org.example.server.core.CollectionIndexes;
+import org.example.server.core.CollectionManager;
+import org.example.server.exceptions.IllegalArguments;
+
+import java.util.List;
+
+/**
+ * Команда 'search'
+ * Ищет элементы по началу или по подстроке названия группы или имени старосты (без учёта регистра)
+ */
+public class ServerSearchCommand extends Command {
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 1000;
+
+    private final CollectionManager collectionManager;
+
+    public ServerSearchCommand(CollectionManager collectionManager) {
+        super("search", "<name|admin> <prefix|contains> <текст> [limit]: найти элементы по началу или подстроке названия группы или имени старосты");
+        this.collectionManager = collectionManager;
+    }
+
+    @Override
+    public CommandClass getCommandClass() {
+        return CommandClass.HEAVY_READ;
+    }
+
+    /**
+     * Исполнить команду
+     * @param request аргументы команды
+     * @throws IllegalArguments неверные аргументы команды
+     */
+    @Override
+    public Response execute(Request request) throws IllegalArguments {
+        String[] args = request.getArgs().trim().split("\\s+", 3);
+        if (args.length != 3) throw new IllegalArguments();
+        CollectionIndexes.TextField field = CollectionIndexes.TextField.byLabel(args[0]).orElseThrow(IllegalArguments::new);
+        boolean prefix = switch (args[1].toLowerCase()) {
+            case "prefix" -> true;
+            case "contains" -> false;
+            default -> throw new IllegalArguments();
+        };
+
+        // the last word is the limit when it is a number and something is left for the text
+        String text = args[2];
+        int limit = DEFAULT_LIMIT;
+        int lastSpace = text.lastIndexOf(' ');
+        if (lastSpace > 0 && text.substring(lastSpace + 1).matches("\\d{1,9}")) {
+            limit = Integer.parseInt(text.substring(lastSpace + 1));
+            text = text.substring(0, lastSpace).trim();
+        }
+        if (text.isBlank()) throw new IllegalArguments();
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            return new Response(StatusCode.ERROR, "limit должен быть от 1 до " + MAX_LIMIT);
+        }
+
+        List<StudyGroup> groups = collectionManager.search(field, prefix, text, limit);
+        if (groups.isEmpty()) return new Response(StatusCode.OK, "Ничего не найдено");
+        return new Response(StatusCode.OK, "Найдено элементов: " + groups.size(), groups);
+    }
+}
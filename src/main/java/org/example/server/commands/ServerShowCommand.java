@@ -3,24 +3,40 @@ package org.example.server.commands;
 import org.example.common.network.Request;
 import org.example.common.network.Response;
 import org.example.common.network.StatusCode;
+import org.example.server.core.VersionToken;
 import org.example.server.exceptions.IllegalArguments;
 import org.example.server.core.CollectionManager;
 import org.example.common.models.StudyGroup;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * Команда 'show'
- *  Выводит в стандартный поток вывода все элементы коллекции в строковом представлении
+ *  Выводит в стандартный поток вывода все элементы коллекции в строковом представлении.
+ *  С размером страницы отдаёт коллекцию постранично по возрастанию id; токен продолжения хранит последний
+ *  отданный id и версию коллекции, так что сервер не держит состояния между страницами
  */
 public class ServerShowCommand extends Command{
+    static final int MAX_PAGE_SIZE = 100;
+
     private CollectionManager collectionManager;
 
     public ServerShowCommand(CollectionManager collectionManager) {
-        super("show", ": вывести в стандартный поток вывода все элементы коллекции в строковом представлении");
+        super("show", "[размер_страницы [токен]]: вывести в стандартный поток вывода все элементы коллекции в строковом представлении (постранично, если задан размер страницы)");
         this.collectionManager = collectionManager;
     }
 
+    @Override
+    public boolean isCacheable(Request request) {
+        return true; // a page depends only on its arguments and the collection version
+    }
+
+    @Override
+    public CommandClass getCommandClass() {
+        return CommandClass.HEAVY_READ;
+    }
+
     /**
      * Исполнить команду
      * @param request аргументы команды
@@ -28,11 +44,54 @@ public class ServerShowCommand extends Command{
      */
     @Override
     public Response execute(Request request) throws IllegalArguments {
-        if (!request.getArgs().isBlank()) throw new IllegalArguments();
+        if (!request.getArgs().isBlank()) return page(request);
         Collection<StudyGroup> collection = collectionManager.getCollection();
         if (collection == null || collection.isEmpty()) {
             return new Response(StatusCode.ERROR,"Коллекция еще не инициализирована");
         }
         return new Response(StatusCode.OK, "Коллекция: ", collection);
     }
-}
\ No newline at end of file
+
+    private Response page(Request request) throws IllegalArguments {
+        String[] args = request.getArgs().trim().split("\\s+");
+        if (args.length > 2) throw new IllegalArguments();
+        int pageSize;
+        try {
+            pageSize = Integer.parseInt(args[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArguments(e);
+        }
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            return new Response(StatusCode.ERROR, "Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+
+        // токен: версия коллекции в начале просмотра и последний отданный id, страница продолжается после него
+        VersionToken started = null;
+        int afterId = 0;
+        if (args.length == 2) {
+            int slash = args[1].lastIndexOf('/');
+            try {
+                if (slash <= 0) throw new IllegalArgumentException("no last id in " + args[1]);
+                started = VersionToken.parse(args[1].substring(0, slash));
+                afterId = Integer.parseInt(args[1].substring(slash + 1));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArguments(e);
+            }
+        }
+
+        CollectionManager.IdPage page = collectionManager.pageAfter(afterId, pageSize);
+        if (started == null) {
+            started = page.version();
+        } else if (started.epoch() != page.version().epoch()) {
+            return new Response(StatusCode.ERROR, "Сервер перезапущен, начните заново: show " + pageSize);
+        }
+        if (page.total() == 0) return new Response(StatusCode.ERROR, "Коллекция еще не инициализирована");
+
+        List<StudyGroup> groups = page.groups();
+        String nextToken = groups.size() < pageSize ? null : started + "/" + groups.get(groups.size() - 1).getId();
+        String changed = started.equals(page.version()) ? ""
+                : " (коллекция изменилась с начала просмотра, изменения: sync " + started + ")";
+        return new Response(StatusCode.OK, "Коллекция (" + groups.size() + " из " + page.total() + ")" + changed + ": ",
+                groups, nextToken);
+    }
+}
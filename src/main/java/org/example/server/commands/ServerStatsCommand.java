@@ -0,0 +1,33 @@
+package org.example.server.commands;
+
+import org.example.common.network.Request;
+import org.example.common.network.Response;
+import org.example.common.network.StatusCode;
+import org.example.server.core.ServerMetrics;
+import org.example.server.exceptions.IllegalArguments;
+
+/**
+ * Команда 'stats'
+ * Выводит метрики сервера
+ */
+public class ServerStatsCommand extends Command {
+    public ServerStatsCommand() {
+        super("stats", ": вывести метрики сервера (кэш ответов и др.)");
+    }
+
+    @Override
+    public CommandClass getCommandClass() {
+        return CommandClass.CHEAP_READ;
+    }
+
+    /**
+     * Исполнить команду
+     * @param request аргументы команды
+     * @throws IllegalArguments неверные аргументы команды
+     */
+    @Override
+    public Response execute(Request request) throws IllegalArguments {
+        if (!request.getArgs().isBlank()) throw new IllegalArguments();
+        return new Response(StatusCode.OK, "Метрики сервера:\n" + ServerMetrics.getInstance().report());
+    }
+}
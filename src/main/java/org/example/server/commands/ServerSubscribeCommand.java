@@ -0,0 +1,78 @@
+package org.example.server.commands;
+
+import org.example.common.network.Request;
+import org.example.common.network.Response;
+import org.example.common.network.StatusCode;
+import org.example.server.core.CollectionManager;
+import org.example.server.core.DatabaseManager;
+import org.example.server.core.SubscriptionManager;
+import org.example.server.exceptions.IllegalArguments;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.OptionalLong;
+
+/**
+ * Команда 'subscribe'
+ * Подписывает клиента на уведомления об изменениях коллекции (всей или одного владельца).
+ * Подписка требует входа в аккаунт и подтверждения: сервер отвечает кодом, который клиент
+ * возвращает командой 'subscribe confirm &lt;код&gt;', так что чужой адрес подписать нельзя
+ */
+public class ServerSubscribeCommand extends Command {
+    private final SubscriptionManager subscriptionManager;
+    private final CollectionManager collectionManager;
+    private final DatabaseManager databaseManager;
+
+    public ServerSubscribeCommand(SubscriptionManager subscriptionManager, CollectionManager collectionManager,
+                                  DatabaseManager databaseManager) {
+        super("subscribe", " [владелец]: получать уведомления об изменениях коллекции; повторный вызов продлевает подписку");
+        this.subscriptionManager = subscriptionManager;
+        this.collectionManager = collectionManager;
+        this.databaseManager = databaseManager;
+    }
+
+    @Override
+    public CommandClass getCommandClass() {
+        return CommandClass.WRITE; // проверяет пароль в базе данных и меняет набор подписок
+    }
+
+    /**
+     * Исполнить команду
+     * @param request аргументы команды
+     * @throws IllegalArguments неверные аргументы команды
+     */
+    @Override
+    public Response execute(Request request) throws IllegalArguments {
+        String[] args = request.getArgs() == null || request.getArgs().isBlank()
+                ? new String[0]
+                : request.getArgs().trim().split("\\s+");
+        if (args.length > 2 || (args.length == 2 && !args[0].equals("confirm"))) throw new IllegalArguments();
+        if (args.length == 1 && args[0].equals("confirm")) throw new IllegalArguments(); // код не указан
+        if (request.getClientAddress() == null) {
+            return new Response(StatusCode.ERROR, "Адрес клиента неизвестен, подписка невозможна");
+        }
+        if (request.getUser() == null || !databaseManager.confirmUser(request.getUser())) {
+            return new Response(StatusCode.LOGIN_FAILED, "Подписка доступна только после входа в аккаунт");
+        }
+        return args.length == 2 ? confirm(request, args[1]) : challenge(request, args.length == 0 ? null : args[0]);
+    }
+
+    private Response challenge(Request request, String owner) {
+        String token = subscriptionManager.challenge(request.getClientAddress(), owner);
+        if (token == null) {
+            return new Response(StatusCode.ERROR, "Достигнут предел числа подписок, повторите позже");
+        }
+        return new Response(StatusCode.ASK_CONFIRMATION, "Подтвердите подписку: subscribe confirm " + token, token);
+    }
+
+    private Response confirm(Request request, String token) {
+        OptionalLong expiresAt = subscriptionManager.confirm(request.getClientAddress(), token);
+        if (expiresAt.isEmpty()) {
+            return new Response(StatusCode.ERROR, "Код подтверждения неверен или устарел, повторите subscribe");
+        }
+        LocalDateTime until = LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAt.getAsLong()), ZoneId.systemDefault());
+        return new Response(StatusCode.OK, "Подписка действует до " + CollectionManager.timeFormatter(until)
+                + ", текущая версия " + collectionManager.getVersionToken());
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.server.commands;
+
+import org.example.common.network.Request;
+import org.example.common.network.Response;
+import org.example.common.network.StatusCode;
+import org.example.server.ServerApp;
+import org.example.server.core.CollectionManager;
+import org.example.server.core.VersionToken;
+import org.example.server.exceptions.CommandRuntimeError;
+import org.example.server.exceptions.IllegalArguments;
+import org.example.server.network.ResponseEncoder;
+import org.example.server.network.ResponseSender;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Команда 'sync'
+ * Возвращает только изменения коллекции (добавления, обновления, удаления) после заданной версии
+ */
+public class ServerSyncCommand extends Command {
+    private final CollectionManager collectionManager;
+
+    public ServerSyncCommand(CollectionManager collectionManager) {
+        super("sync", "<версия>: вывести изменения коллекции после версии вида эпоха:номер (0 - с начала работы сервера)");
+        this.collectionManager = collectionManager;
+    }
+
+    @Override
+    public CommandClass getCommandClass() {
+        return CommandClass.HEAVY_READ;
+    }
+
+    /**
+     * Исполнить команду
+     * @param request аргументы команды
+     * @throws IllegalArguments неверные аргументы команды
+     * @throws CommandRuntimeError ответ не удалось сериализовать
+     */
+    @Override
+    public Response execute(Request request) throws IllegalArguments, CommandRuntimeError {
+        VersionToken known;
+        try {
+            known = VersionToken.parse(request.getArgs());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArguments(e);
+        }
+
+        // halve the batch until the answer fits into one datagram
+        for (int limit = ServerApp.SYNC_BATCH_SIZE; limit > 0; limit /= 2) {
+            CollectionManager.Changes changes = collectionManager.changesSince(known, limit);
+            Response response = respond(known, changes);
+            if (changes.resync()) return response;
+            byte[] encoded;
+            try {
+                encoded = ResponseEncoder.serialize(response);
+            } catch (IOException e) {
+                throw new CommandRuntimeError(e);
+            }
+            if (encoded.length <= ResponseSender.MAX_DATAGRAM) {
+                response.setEncoded(encoded);
+                return response;
+            }
+        }
+        // a single change does not fit into a datagram
+        return respond(known, new CollectionManager.Changes(collectionManager.getVersionToken(), List.of(), true, false));
+    }
+
+    private static Response respond(VersionToken known, CollectionManager.Changes changes) {
+        VersionToken version = changes.version();
+        if (changes.resync()) {
+            return new Response(StatusCode.RESYNC, "Изменения после версии " + known
+                    + " недоступны. Загрузите коллекцию заново (show) и продолжайте с sync " + version,
+                    changes.events(), version.epoch(), version.version());
+        }
+        String message = "Изменений: " + changes.events().size() + ", версия " + version
+                + (changes.more() ? ". Есть еще изменения, повторите sync " + version : "");
+        return new Response(StatusCode.OK, message, changes.events(), version.epoch(), version.version());
+    }
+}
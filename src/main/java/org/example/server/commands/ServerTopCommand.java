@@ -0,0 +1,63 @@
+package org.example.server.commands;
+
+import org.example.common.models.StudyGroup;
+import org.example.common.network.Request;
+import org.example.common.network.Response;
+import org.example.common.network.StatusCode;
+import org.example.server.core.CollectionManager;
+import org.example.server.core.StudyGroupQuery;
+import org.example.server.exceptions.IllegalArguments;
+
+import java.util.List;
+
+/**
+ * Команда 'top'
+ * Выводит k элементов с наибольшим (или, с asc, наименьшим) значением числового поля
+ */
+public class ServerTopCommand extends Command {
+    static final int MAX_K = 1000;
+
+    private final CollectionManager collectionManager;
+
+    public ServerTopCommand(CollectionManager collectionManager) {
+        super("top", "<studentsCount|shouldBeExpelled|id|x|y|weight> <k> [asc]: вывести k элементов с наибольшим (asc - наименьшим) значением поля");
+        this.collectionManager = collectionManager;
+    }
+
+    @Override
+    public CommandClass getCommandClass() {
+        return CommandClass.HEAVY_READ;
+    }
+
+    /**
+     * Исполнить команду
+     * @param request аргументы команды
+     * @throws IllegalArguments неверные аргументы команды
+     */
+    @Override
+    public Response execute(Request request) throws IllegalArguments {
+        String[] args = request.getArgs().trim().split("\\s+");
+        if (args.length < 2 || args.length > 3) throw new IllegalArguments();
+        StudyGroupQuery.NumericField field = StudyGroupQuery.NumericField.byLabel(args[0]).orElseThrow(IllegalArguments::new);
+        int k;
+        try {
+            k = Integer.parseInt(args[1]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArguments(e);
+        }
+        if (args.length == 3 && !args[2].equalsIgnoreCase("asc")) throw new IllegalArguments();
+        boolean largest = args.length == 2;
+        if (k <= 0 || k > MAX_K) {
+            return new Response(StatusCode.ERROR, "k должно быть от 1 до " + MAX_K);
+        }
+
+        List<StudyGroup> groups = collectionManager.top(field, k, largest);
+        if (groups.isEmpty()) return new Response(StatusCode.OK, "Нет элементов со значением поля " + field.label());
+        StringBuilder order = new StringBuilder((largest ? "Наибольшие" : "Наименьшие") + " по " + field.label() + ":\n");
+        for (int i = 0; i < groups.size(); i++) {
+            order.append(i + 1).append(". id ").append(groups.get(i).getId())
+                    .append(" — ").append(field.valueOf(groups.get(i))).append('\n');
+        }
+        return new Response(StatusCode.OK, order.toString(), groups, null);
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.server.commands;
+
+import org.example.common.network.Request;
+import org.example.common.network.Response;
+import org.example.common.network.StatusCode;
+import org.example.server.core.DatabaseManager;
+import org.example.server.core.SubscriptionManager;
+import org.example.server.exceptions.IllegalArguments;
+
+/**
+ * Команда 'unsubscribe'
+ * Отменяет подписку клиента на уведомления об изменениях; как и подписка, требует входа в аккаунт
+ */
+public class ServerUnsubscribeCommand extends Command {
+    private final SubscriptionManager subscriptionManager;
+    private final DatabaseManager databaseManager;
+
+    public ServerUnsubscribeCommand(SubscriptionManager subscriptionManager, DatabaseManager databaseManager) {
+        super("unsubscribe", ": перестать получать уведомления об изменениях коллекции");
+        this.subscriptionManager = subscriptionManager;
+        this.databaseManager = databaseManager;
+    }
+
+    @Override
+    public CommandClass getCommandClass() {
+        return CommandClass.WRITE; // проверяет пароль в базе данных
+    }
+
+    /**
+     * Исполнить команду
+     * @param request аргументы команды
+     * @throws IllegalArguments неверные аргументы команды
+     */
+    @Override
+    public Response execute(Request request) throws IllegalArguments {
+        if (!request.getArgs().isBlank()) throw new IllegalArguments();
+        if (request.getUser() == null || !databaseManager.confirmUser(request.getUser())) {
+            return new Response(StatusCode.LOGIN_FAILED, "Отмена подписки доступна только после входа в аккаунт");
+        }
+        if (subscriptionManager.unsubscribe(request.getClientAddress())) {
+            return new Response(StatusCode.OK, "Подписка отменена");
+        }
+        return new Response(StatusCode.OK, "Активной подписки нет");
+    }
+}
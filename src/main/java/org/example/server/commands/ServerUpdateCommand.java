@@ -4,7 +4,6 @@ import org.example.common.network.Response;
 import org.example.common.network.StatusCode;
 import org.example.server.exceptions.IllegalArguments;
 import org.example.server.core.CollectionManager;
-import org.example.server.network.DatabaseHandler;
 
 import java.util.Objects;
 
@@ -37,8 +36,7 @@ public class ServerUpdateCommand extends Command implements CollectionEditor{
             if (Objects.isNull(request.getObject())){
                 return new Response(StatusCode.ASK_OBJECT, "Для команды " + this.getName() + " требуется объект");
             }
-            if(DatabaseHandler.getDatabaseManager().updateObject(id, request.getObject(), request.getUser())){
-                collectionManager.editById(id, request.getObject());
+            if(collectionManager.updateElement(id, request.getObject(), request.getUser())){
                 return new Response(StatusCode.OK, "Объект успешно обновлен");
             }
             return new Response(StatusCode.ERROR, "Объект не обновлен. Вероятнее всего он не ваш");
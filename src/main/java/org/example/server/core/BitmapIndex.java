@@ -0,0 +1,53 @@
+package org.example.server.core;
+
+import org.example.common.models.StudyGroup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Maps every value of one StudyGroup attribute to the bitmap of ids holding it.
+ * A null attribute is indexed under the null key. Not thread-safe.
+ */
+public class BitmapIndex<K> {
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    private final Function<StudyGroup, K> attribute;
+    private final Map<K, RoaringBitmap> bitmaps = new HashMap<>();
+
+    public BitmapIndex(Function<StudyGroup, K> attribute) {
+        this.attribute = attribute;
+    }
+
+    public void add(StudyGroup studyGroup) {
+        bitmaps.computeIfAbsent(attribute.apply(studyGroup), key -> new RoaringBitmap()).add(studyGroup.getId());
+    }
+
+    public void remove(StudyGroup studyGroup) {
+        K key = attribute.apply(studyGroup);
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap == null) return;
+        bitmap.remove(studyGroup.getId());
+        if (bitmap.isEmpty()) bitmaps.remove(key);
+    }
+
+    /**
+     * @return the ids with the given value; the bitmap is live and must not be modified
+     */
+    public RoaringBitmap get(K key) {
+        return bitmaps.getOrDefault(key, EMPTY);
+    }
+
+    public int cardinality(K key) {
+        return get(key).cardinality();
+    }
+
+    public int distinctValues() {
+        return bitmaps.size();
+    }
+
+    public void clear() {
+        bitmaps.clear();
+    }
+}
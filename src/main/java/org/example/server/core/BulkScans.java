@@ -0,0 +1,50 @@
+package org.example.server.core;
+
+import org.example.server.ServerApp;
+
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Runs bulk stream pipelines over collection snapshots: sequentially for small inputs,
+ * in parallel on a dedicated fork-join pool from {@link ServerApp#PARALLEL_SCAN_THRESHOLD} elements on.
+ * The pool is separate from the request dispatch pool, so a large scan cannot starve request handling.
+ * The threshold is a configured guess, not a measured crossover; with a single pool thread nothing can
+ * gain from splitting, so scans then always stay sequential.
+ */
+public final class BulkScans {
+    private static final Logger logger = Logger.getLogger(BulkScans.class.getName());
+
+    private static final ForkJoinPool pool = new ForkJoinPool(ServerApp.PARALLEL_SCAN_THREADS, pool -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("bulk-scan-" + thread.getPoolIndex());
+        return thread;
+    }, null, false);
+
+    private static final boolean PARALLEL = pool.getParallelism() > 1;
+
+    static {
+        logger.info(PARALLEL
+                ? "Bulk scans: parallel from " + ServerApp.PARALLEL_SCAN_THRESHOLD + " elements on " + pool.getParallelism() + " threads"
+                : "Bulk scans: sequential, the pool has a single thread");
+    }
+
+    private BulkScans() {
+    }
+
+    /**
+     * Applies the pipeline to a stream over the source. A parallel stream evaluated from inside
+     * the pool forks its tasks into that pool rather than into the common one.
+     * The pipeline must not take locks of the collection.
+     */
+    public static <T, R> R run(Collection<T> source, Function<Stream<T>, R> pipeline) {
+        if (!PARALLEL || source.size() < ServerApp.PARALLEL_SCAN_THRESHOLD) {
+            return pipeline.apply(source.stream());
+        }
+        return pool.submit(() -> pipeline.apply(source.parallelStream())).join();
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.server.core;
+
+import org.example.common.network.ChangeEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Bounded log of the most recent collection changes, oldest first.
+ * Once full, the oldest event is dropped for every new one. Not thread-safe.
+ */
+public class ChangeLog {
+    private final ArrayDeque<ChangeEvent> events = new ArrayDeque<>();
+    private final int capacity;
+
+    public ChangeLog(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void append(ChangeEvent event) {
+        if (events.size() == capacity) events.removeFirst();
+        events.addLast(event);
+    }
+
+    /**
+     * @param version the last version the caller has seen
+     * @param current the current collection version
+     * @return the events after the version, or empty if some of them have already been dropped
+     *         or the version is unknown (ahead of the current one, e.g. from before a restart)
+     */
+    public Optional<List<ChangeEvent>> since(long version, long current) {
+        if (version > current) return Optional.empty();
+        if (version == current) return Optional.of(List.of());
+        if (events.isEmpty() || events.peekFirst().version() > version + 1) return Optional.empty();
+        List<ChangeEvent> result = new ArrayList<>();
+        var iterator = events.descendingIterator();
+        while (iterator.hasNext()) {
+            ChangeEvent event = iterator.next();
+            if (event.version() <= version) break;
+            result.add(event);
+        }
+        Collections.reverse(result); // a reversed() view would not be serializable
+        return Optional.of(result);
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.server.core;
+
+import org.example.common.models.StudyGroup;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Running count, sum, min and max of studentsCount and shouldBeExpelled, in total and grouped by
+ * form of education, semester and owner. Updated on every insert and delete, so a report costs
+ * the number of groups in it rather than a pass over the collection. Not thread-safe.
+ */
+public class CollectionAggregates {
+    public enum Dimension {
+        FORM("form", StudyGroup::getFormOfEducation),
+        SEMESTER("semester", StudyGroup::getSemesterEnum),
+        OWNER("owner", CollectionManager::ownerOf);
+
+        private final String label;
+        private final Function<StudyGroup, Object> key;
+
+        Dimension(String label, Function<StudyGroup, Object> key) {
+            this.label = label;
+            this.key = key;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        public static Optional<Dimension> byLabel(String label) {
+            return Arrays.stream(values()).filter(d -> d.label.equalsIgnoreCase(label)).findFirst();
+        }
+    }
+
+    /**
+     * Aggregates of one group. Min and max are null while the group holds no value of the field.
+     */
+    public record Summary(long count, long studentsSum, Long studentsMin, Long studentsMax,
+                          long expelledCount, long expelledSum, Long expelledMin, Long expelledMax) {
+    }
+
+    private final Accumulator total = new Accumulator();
+    private final Map<Dimension, Map<Object, Accumulator>> groups = new EnumMap<>(Dimension.class);
+
+    public CollectionAggregates() {
+        for (Dimension dimension : Dimension.values()) groups.put(dimension, new HashMap<>());
+    }
+
+    void add(StudyGroup studyGroup) {
+        total.add(studyGroup);
+        for (Dimension dimension : Dimension.values()) {
+            groups.get(dimension).computeIfAbsent(dimension.key.apply(studyGroup), key -> new Accumulator()).add(studyGroup);
+        }
+    }
+
+    void remove(StudyGroup studyGroup) {
+        total.remove(studyGroup);
+        for (Dimension dimension : Dimension.values()) {
+            Map<Object, Accumulator> byKey = groups.get(dimension);
+            Object key = dimension.key.apply(studyGroup);
+            Accumulator accumulator = byKey.get(key);
+            if (accumulator == null) continue;
+            accumulator.remove(studyGroup);
+            if (accumulator.count == 0) byKey.remove(key);
+        }
+    }
+
+    void clear() {
+        total.clear();
+        groups.values().forEach(Map::clear);
+    }
+
+    public Summary total() {
+        return total.summary();
+    }
+
+    /**
+     * @return the summary of every non-empty group, keyed by the group value (null for an unset field)
+     */
+    public Map<Object, Summary> groupBy(Dimension dimension) {
+        Map<Object, Summary> result = new LinkedHashMap<>();
+        groups.get(dimension).forEach((key, accumulator) -> result.put(key, accumulator.summary()));
+        return result;
+    }
+
+    private static final class Accumulator {
+        private long count;
+        private long studentsSum;
+        private long expelledSum;
+        // value -> number of groups holding it, so min and max survive deletes
+        private final TreeMap<Long, Integer> students = new TreeMap<>();
+        private final TreeMap<Long, Integer> expelled = new TreeMap<>();
+        private long expelledCount;
+
+        void add(StudyGroup studyGroup) {
+            count++;
+            studentsSum += studyGroup.getStudentsCount();
+            students.merge(studyGroup.getStudentsCount(), 1, Integer::sum);
+            Long expelledValue = studyGroup.getShouldBeExpelled();
+            if (expelledValue != null) {
+                expelledCount++;
+                expelledSum += expelledValue;
+                expelled.merge(expelledValue, 1, Integer::sum);
+            }
+        }
+
+        void remove(StudyGroup studyGroup) {
+            count--;
+            studentsSum -= studyGroup.getStudentsCount();
+            decrement(students, studyGroup.getStudentsCount());
+            Long expelledValue = studyGroup.getShouldBeExpelled();
+            if (expelledValue != null) {
+                expelledCount--;
+                expelledSum -= expelledValue;
+                decrement(expelled, expelledValue);
+            }
+        }
+
+        void clear() {
+            count = studentsSum = expelledSum = expelledCount = 0;
+            students.clear();
+            expelled.clear();
+        }
+
+        Summary summary() {
+            return new Summary(count, studentsSum,
+                    students.isEmpty() ? null : students.firstKey(), students.isEmpty() ? null : students.lastKey(),
+                    expelledCount, expelledSum,
+                    expelled.isEmpty() ? null : expelled.firstKey(), expelled.isEmpty() ? null : expelled.lastKey());
+        }
+
+        private static void decrement(TreeMap<Long, Integer> counts, long value) {
+            counts.computeIfPresent(value, (key, n) -> n == 1 ? null : n - 1);
+        }
+    }
+}
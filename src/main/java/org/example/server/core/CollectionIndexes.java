@@ -0,0 +1,195 @@
+package org.example.server.core;
+
+import org.example.common.models.*;
+import org.example.server.ServerApp;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Secondary indexes over the cached collection. Maintained by {@link CollectionManager}
+ * under its write lock, so readers need the read lock or a validated optimistic stamp.
+ */
+public class CollectionIndexes {
+    /**
+     * Point fields covered by a spatial index.
+     */
+    public enum SpatialField {
+        COORDINATES("coordinates"),
+        LOCATION("location");
+
+        private final String label;
+
+        SpatialField(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        public static Optional<SpatialField> byLabel(String label) {
+            return Arrays.stream(values()).filter(field -> field.label.equalsIgnoreCase(label)).findFirst();
+        }
+    }
+
+    /**
+     * String fields covered by a text index.
+     */
+    public enum TextField {
+        NAME("name"),
+        ADMIN("admin");
+
+        private final String label;
+
+        TextField(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        public static Optional<TextField> byLabel(String label) {
+            return Arrays.stream(values()).filter(field -> field.label.equalsIgnoreCase(label)).findFirst();
+        }
+    }
+
+    private final BitmapIndex<FormOfEducation> byForm = new BitmapIndex<>(StudyGroup::getFormOfEducation);
+    private final BitmapIndex<Semester> bySemester = new BitmapIndex<>(StudyGroup::getSemesterEnum);
+    private final BitmapIndex<Color> byEyeColor = new BitmapIndex<>(sg -> sg.getGroupAdmin().getEyeColor());
+    private final BitmapIndex<Color> byHairColor = new BitmapIndex<>(sg -> sg.getGroupAdmin().getHairColor());
+    private final BitmapIndex<Country> byNationality = new BitmapIndex<>(sg -> sg.getGroupAdmin().getNationality());
+    private final BitmapIndex<String> byOwner = new BitmapIndex<>(CollectionManager::ownerOf);
+    private final RangeIndex byStudentsCount = new RangeIndex(StudyGroup::getStudentsCount);
+    private final RangeIndex byShouldBeExpelled = new RangeIndex(StudyGroup::getShouldBeExpelled);
+    private final TextIndex byName = new TextIndex(StudyGroup::getName);
+    private final TextIndex byAdminName = new TextIndex(sg -> sg.getGroupAdmin().getName());
+    private final SpatialGridIndex byCoordinates = new SpatialGridIndex(
+            sg -> sg.getCoordinates().getX(), sg -> sg.getCoordinates().getY(), ServerApp.SPATIAL_CELL_SIZE);
+    private final SpatialGridIndex byAdminLocation = new SpatialGridIndex(
+            sg -> sg.getGroupAdmin().getLocation().getX(), sg -> sg.getGroupAdmin().getLocation().getY(), ServerApp.SPATIAL_CELL_SIZE);
+    private final ScanColumns columns = new ScanColumns();
+    /**
+     * Every indexed id, for walking the collection in id order from any point.
+     */
+    private final RoaringBitmap ids = new RoaringBitmap();
+    private int size;
+
+    void add(StudyGroup studyGroup) {
+        size++;
+        byForm.add(studyGroup);
+        bySemester.add(studyGroup);
+        byEyeColor.add(studyGroup);
+        byHairColor.add(studyGroup);
+        byNationality.add(studyGroup);
+        byOwner.add(studyGroup);
+        byStudentsCount.add(studyGroup);
+        byShouldBeExpelled.add(studyGroup);
+        byCoordinates.add(studyGroup);
+        byAdminLocation.add(studyGroup);
+        byName.add(studyGroup);
+        byAdminName.add(studyGroup);
+        columns.add(studyGroup);
+        ids.add(studyGroup.getId());
+    }
+
+    void remove(StudyGroup studyGroup) {
+        size--;
+        byForm.remove(studyGroup);
+        bySemester.remove(studyGroup);
+        byEyeColor.remove(studyGroup);
+        byHairColor.remove(studyGroup);
+        byNationality.remove(studyGroup);
+        byOwner.remove(studyGroup);
+        byStudentsCount.remove(studyGroup);
+        byShouldBeExpelled.remove(studyGroup);
+        byCoordinates.remove(studyGroup);
+        byAdminLocation.remove(studyGroup);
+        byName.remove(studyGroup);
+        byAdminName.remove(studyGroup);
+        columns.remove(studyGroup);
+        ids.remove(studyGroup.getId());
+    }
+
+    void clear() {
+        size = 0;
+        byForm.clear();
+        bySemester.clear();
+        byEyeColor.clear();
+        byHairColor.clear();
+        byNationality.clear();
+        byOwner.clear();
+        byStudentsCount.clear();
+        byShouldBeExpelled.clear();
+        byCoordinates.clear();
+        byAdminLocation.clear();
+        byName.clear();
+        byAdminName.clear();
+        columns.clear();
+        ids.clear();
+    }
+
+    /**
+     * @return the number of indexed elements
+     */
+    public int size() {
+        return size;
+    }
+
+    public RoaringBitmap ids() {
+        return ids;
+    }
+
+    ScanColumns columns() {
+        return columns;
+    }
+
+    public BitmapIndex<FormOfEducation> byForm() {
+        return byForm;
+    }
+
+    public BitmapIndex<Semester> bySemester() {
+        return bySemester;
+    }
+
+    public BitmapIndex<Color> byEyeColor() {
+        return byEyeColor;
+    }
+
+    public BitmapIndex<Color> byHairColor() {
+        return byHairColor;
+    }
+
+    public BitmapIndex<Country> byNationality() {
+        return byNationality;
+    }
+
+    public BitmapIndex<String> byOwner() {
+        return byOwner;
+    }
+
+    public RangeIndex byStudentsCount() {
+        return byStudentsCount;
+    }
+
+    public RangeIndex byShouldBeExpelled() {
+        return byShouldBeExpelled;
+    }
+
+    public SpatialGridIndex byCoordinates() {
+        return byCoordinates;
+    }
+
+    public SpatialGridIndex byAdminLocation() {
+        return byAdminLocation;
+    }
+
+    public SpatialGridIndex spatial(SpatialField field) {
+        return field == SpatialField.COORDINATES ? byCoordinates : byAdminLocation;
+    }
+
+    public TextIndex text(TextField field) {
+        return field == TextField.NAME ? byName : byAdminName;
+    }
+}
@@ -1,73 +1,314 @@
 package org.example.server.core;
 
 import org.example.common.models.FormOfEducation;
+import org.example.common.models.Location;
 import org.example.common.models.Person;
 import org.example.common.models.StudyGroup;
+import org.example.common.network.ChangeEvent;
 import org.example.common.network.User;
+import org.example.server.ServerApp;
 import org.example.server.exceptions.InvalidForm;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 public class CollectionManager {
-    private final ArrayDeque<StudyGroup> collection = new ArrayDeque<>();
     private DatabaseManager databaseManager;
-    private final ConcurrentHashMap<Integer, StudyGroup> collectionCache;
+    /**
+     * The only in-memory copy of the collection; with the columnar or off-heap store no StudyGroup
+     * objects are kept, they are materialized per read.
+     */
+    private final StudyGroupStore collectionCache;
+    private final CollectionIndexes indexes = new CollectionIndexes();
+    private final CollectionAggregates aggregates = new CollectionAggregates();
+    /**
+     * Bumped by every change of the cache, under the write lock; the log keeps the latest changes.
+     */
+    private long version;
+    /**
+     * Drawn on every start, so versions of an earlier run are told apart from the current ones.
+     */
+    private final long epoch = ThreadLocalRandom.current().nextLong(1, 1L << 40);
+    private final ChangeLog changeLog = new ChangeLog(ServerApp.CHANGE_LOG_SIZE);
+    private volatile SubscriptionManager subscriptions;
     private final LocalDateTime initializationTime;
     LocalDateTime lastInitTime;
     private Logger logger;
-    private ReadWriteLock lock = new ReentrantReadWriteLock();
-    Lock writeLock = lock.writeLock();
-    Lock readLock = lock.readLock();
+    /**
+     * Guards the cache and its indexes. Read-mostly queries go through {@link #optimisticRead}
+     * and only fall back to a real read lock when a writer interferes.
+     * Not reentrant: never call a locking method while holding {@code writeLock}.
+     */
+    private final StampedLock lock = new StampedLock();
+    Lock writeLock = lock.asWriteLock();
+    Lock readLock = lock.asReadLock();
+    /**
+     * Serialize mutations per owner login. Only the owner may change or delete an element (the database
+     * refuses anyone else), so the owner stripe is the single lock key of every element: an update and
+     * a removal of the same id always exclude each other. Lock order is owner stripe, then
+     * {@code writeLock}; the global write lock is held only while the in-memory structures are swapped,
+     * never across a database call.
+     */
+    private final StripedLocks ownerLocks = new StripedLocks(64);
     private LocalDateTime lastSaveTime;
 
     public CollectionManager(DatabaseManager databaseManager) {
         this.logger = Logger.getLogger(CollectionManager.class.getName());
         this.databaseManager = databaseManager;
         this.initializationTime = LocalDateTime.now();
-        this.collectionCache = new ConcurrentHashMap<>();
+        this.collectionCache = StudyGroupStore.forMode(ServerApp.STORAGE_MODE, ServerApp.STORAGE_FILE);
+        // a file-backed store may reopen with a snapshot: its rows must be visible to the indexes too
+        collectionCache.values().forEach(this::indexLocked);
         logger.info("CollectionManager initialized. Initial cache size: " + this.collectionCache.size());
     }
 
+    /**
+     * Makes the cache durable if its store is backed by a file, so the next run reopens it as it is now.
+     */
+    public void checkpoint() {
+        try {
+            writeLock.lock();
+            collectionCache.checkpoint();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Runs a side-effect free query under an optimistic stamp, retrying under the read lock
+     * if a writer got in the way. The reader may observe a torn state, so it must not
+     * publish anything it reads before the stamp is validated.
+     */
+    private <T> T optimisticRead(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                T value = reader.get();
+                if (lock.validate(stamp)) return value;
+            } catch (RuntimeException ignored) {
+                // inconsistent snapshot seen mid-write, retry under the read lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
     public String getInfo() {
         String initTimeFormatted = (initializationTime != null)
                 ? initializationTime.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))
                 : "N/A";
+        int cacheSize = optimisticRead(collectionCache::size);
 
         return "Server Collection Information:\n" +
                 "  In-Memory Cache Type: " + collectionCache.getClass().getSimpleName() + "\n" +
-                "  Elements in Cache: " + collectionCache.size() + "\n" +
+                "  Elements in Cache: " + cacheSize + "\n" +
                 "  Cache Initialization Time: " + initTimeFormatted + "\n" +
                 "  Primary Data Store: PostgreSQL Database\n" +
                 "  Note: Cache is updated upon successful database modifications.";
     }
-    public ArrayDeque<StudyGroup> getCollection() {
+    /**
+     * @return a snapshot of the collection in id order, built from the store on every call
+     */
+    public List<StudyGroup> getCollection() {
+        return getAllGroupsSortedById();
+    }
+
+    public void addElement(StudyGroup studyGroup) throws InvalidForm{
+        if (!studyGroup.validate()) throw new InvalidForm("Количество студентов должно быть положительным");
+        deduplicateStrings(studyGroup);
+        try {
+            writeLock.lock();
+            insertLocked(studyGroup);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void insertLocked(StudyGroup studyGroup) {
+        this.lastSaveTime = LocalDateTime.now();
+        int id = studyGroup.getId();
+        boolean replaces = collectionCache.containsKey(id);
+        if (replaces) unindexLocked(collectionCache.get(id));
+        collectionCache.put(id, studyGroup);
+        indexLocked(studyGroup);
+        recordLocked(replaces ? ChangeEvent.Type.UPDATE : ChangeEvent.Type.ADD, id, studyGroup, ownerOf(studyGroup));
+    }
+
+    private void deleteLocked(StudyGroup studyGroup) {
+        this.lastSaveTime = LocalDateTime.now();
+        // the caller's copy may be stale, unindex what is actually stored
+        StudyGroup stored = collectionCache.get(studyGroup.getId());
+        if (stored != null) {
+            unindexLocked(stored);
+            recordLocked(ChangeEvent.Type.REMOVE, studyGroup.getId(), null, ownerOf(stored));
+        }
+        collectionCache.remove(studyGroup.getId());
+    }
+
+    private void recordLocked(ChangeEvent.Type type, int id, StudyGroup element, String owner) {
+        ChangeEvent event = new ChangeEvent(++version, type, id, element);
+        changeLog.append(event);
+        SubscriptionManager target = subscriptions;
+        if (target != null) target.publish(event, owner);
+    }
+
+    /**
+     * Every change recorded from now on is also pushed to the subscribers.
+     */
+    public void setSubscriptionManager(SubscriptionManager subscriptions) {
+        this.subscriptions = subscriptions;
+    }
+
+    /**
+     * Changes after a version the client has seen.
+     * @param version the version the events lead to: the current one, or that of the last event if more remain
+     * @param resync  true if the log no longer reaches back to that version, or the version is from another run,
+     *                and the client must reload everything
+     * @param more    true if the events were cut at the limit and the client should sync again from {@code version}
+     */
+    public record Changes(VersionToken version, List<ChangeEvent> events, boolean resync, boolean more) {
+    }
+
+    /**
+     * @param limit the most events to return
+     */
+    public Changes changesSince(VersionToken known, int limit) {
         try {
             readLock.lock();
-            return collection;
+            VersionToken current = new VersionToken(epoch, version);
+            if (known != VersionToken.INITIAL && known.epoch() != epoch) return new Changes(current, List.of(), true, false);
+            Optional<List<ChangeEvent>> events = changeLog.since(known.version(), version);
+            if (events.isEmpty()) return new Changes(current, List.of(), true, false);
+            List<ChangeEvent> all = events.get();
+            if (all.size() <= limit) return new Changes(current, all, false, false);
+            List<ChangeEvent> first = List.copyOf(all.subList(0, limit));
+            return new Changes(new VersionToken(epoch, first.getLast().version()), first, false, true);
         } finally {
             readLock.unlock();
         }
     }
 
-    public void addElement(StudyGroup studyGroup) throws InvalidForm{
-        this.lastSaveTime = LocalDateTime.now();
-        if (!studyGroup.validate()) throw new InvalidForm("Количество студентов должно быть положительным");
-        collection.add(studyGroup);
+    /**
+     * @return the version within this run, for cache keys; clients are given {@link #getVersionToken()}
+     */
+    public long getVersion() {
+        return optimisticRead(() -> version);
     }
 
+    public VersionToken getVersionToken() {
+        return new VersionToken(epoch, getVersion());
+    }
+
+    private void indexLocked(StudyGroup studyGroup) {
+        indexes.add(studyGroup);
+        aggregates.add(studyGroup);
+    }
+
+    private void unindexLocked(StudyGroup studyGroup) {
+        indexes.remove(studyGroup);
+        aggregates.remove(studyGroup);
+    }
+
+    public CollectionAggregates.Summary aggregateTotal() {
+        try {
+            readLock.lock();
+            return aggregates.total();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Aggregates are read under the real read lock: an optimistic walk of their trees could loop.
+     */
+    public Map<Object, CollectionAggregates.Summary> aggregateBy(CollectionAggregates.Dimension dimension) {
+        try {
+            readLock.lock();
+            return aggregates.groupBy(dimension);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Evaluates a query against the secondary indexes. The bitmaps handed to the query are live,
+     * so it must combine them into fresh ones and never modify or keep them.
+     * Runs under the read lock: the range indexes are trees, which an optimistic reader could see mid-rotation.
+     */
+    <T> T withIndexes(Function<CollectionIndexes, T> query) {
+        try {
+            readLock.lock();
+            return query.apply(indexes);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Page of the collection in id order, with the size and the version of the collection it was read from.
+     */
+    public record IdPage(List<StudyGroup> groups, int total, VersionToken version) {
+    }
+
+    /**
+     * @return up to {@code limit} elements with an id greater than {@code afterId}, in id order
+     */
+    public IdPage pageAfter(int afterId, int limit) {
+        try {
+            readLock.lock();
+            int[] ids = indexes.ids().after(afterId, limit);
+            List<StudyGroup> groups = new ArrayList<>(ids.length);
+            for (int id : ids) groups.add(collectionCache.get(id));
+            return new IdPage(groups, indexes.size(), new VersionToken(epoch, version));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @return the cached elements whose ids are set in the bitmap, in id order
+     */
+    public List<StudyGroup> getByIds(RoaringBitmap ids) {
+        return optimisticRead(() -> {
+            List<StudyGroup> result = new ArrayList<>(ids.cardinality());
+            ids.forEach(id -> {
+                StudyGroup studyGroup = collectionCache.get(id);
+                if (studyGroup != null) result.add(studyGroup);
+            });
+            return result;
+        });
+    }
 
     public void removeElements(Collection<StudyGroup> collection) {
+        if (collection.isEmpty()) return;
+        if (collection.size() == 1) {
+            removeElement(collection.iterator().next());
+            return;
+        }
         try {
             writeLock.lock();
-            this.collection.removeAll(collection);
+            this.lastSaveTime = LocalDateTime.now();
+            for (StudyGroup studyGroup : collection) {
+                StudyGroup stored = collectionCache.get(studyGroup.getId());
+                if (stored != null) {
+                    unindexLocked(stored);
+                    recordLocked(ChangeEvent.Type.REMOVE, studyGroup.getId(), null, ownerOf(stored));
+                }
+                collectionCache.remove(studyGroup.getId());
+            }
         } finally {
             writeLock.unlock();
         }
@@ -75,118 +316,169 @@ public class CollectionManager {
 
     public List<StudyGroup> getAllGroupsSortedById() {
         logger.fine("CM: Getting all groups sorted by ID from local cache.");
-        if (collectionCache.isEmpty()) return Collections.emptyList();
-        return collectionCache.values().stream()
+        List<StudyGroup> groups = optimisticRead(collectionCache::values);
+        if (groups.isEmpty()) return Collections.emptyList();
+        return BulkScans.run(groups, stream -> stream
                 .sorted()
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * @return the cached elements matching the predicate, in cache order
+     */
+    public List<StudyGroup> scan(Predicate<StudyGroup> predicate) {
+        List<StudyGroup> groups = optimisticRead(collectionCache::values);
+        return BulkScans.run(groups, stream -> stream
+                .filter(predicate)
+                .collect(Collectors.toList()));
     }
 
     public StudyGroup getById(int id) {
         logger.fine("CM: Getting group by ID " + id + " from local cache.");
-        return collectionCache.get(id);
+        return optimisticRead(() -> collectionCache.get(id));
     }
 
     public List<Person> getSortedGroupAdmins() {
         logger.fine("CM: Getting sorted group admins from local cache.");
-        if (collectionCache.isEmpty()) return Collections.emptyList();
-        return collectionCache.values().stream()
+        List<StudyGroup> groups = optimisticRead(collectionCache::values);
+        if (groups.isEmpty()) return Collections.emptyList();
+        return BulkScans.run(groups, stream -> stream
                 .map(StudyGroup::getGroupAdmin)
                 .filter(Objects::nonNull)
                 .sorted()
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     public boolean addIfMin(StudyGroup candidate, User user) throws InvalidForm {
-        logger.info("CM: addIfMin called by user " + user.getLogin());
+        logger.info("CM: addIfMin called by user " + user.name());
 
         // Validate candidate first
         if (!candidate.validate()) {
             throw new InvalidForm("StudyGroup validation failed.");
         }
 
-        writeLock.lock();
+        Lock ownerLock = ownerLocks.forKey(user.name());
+        ownerLock.lock();
         try {
-            if (collectionCache.isEmpty()) {
-                // No elements yet, just add
-                candidate.setOwnerLogin(String.valueOf(user.getLogin()));  // Set ownership
-                int generatedId = databaseManager.addObject(candidate, user.getLogin());
-                if (generatedId != -1) {
-                    candidate.setId(generatedId);
-                    collectionCache.put(generatedId, candidate);
-                    collection.add(candidate);
-                    logger.info("CM: addIfMin - Added first element to empty collection for user " + user.getLogin());
-                    return true;
-                } else {
-                    logger.warning("CM: addIfMin - DB insert failed for user " + user.getLogin());
-                    return false;
-                }
-            } else {
-                // Find current minimum element in cache
-                Optional<StudyGroup> minElementOpt = collectionCache.values().stream()
-                        .min(StudyGroup::compareTo);
-
-                if (minElementOpt.isPresent() && candidate.compareTo(minElementOpt.get()) < 0) {
-                    candidate.setOwnerLogin(String.valueOf(user.getLogin()));  // Set ownership
-                    int generatedId = databaseManager.addObject(candidate, user.getLogin());
-                    if (generatedId != -1) {
-                        candidate.setId(generatedId);
-                        collectionCache.put(generatedId, candidate);
-                        collection.add(candidate);
-                        logger.info("CM: addIfMin - Candidate added as it is less than current min for user " + user.getLogin());
-                        return true;
-                    } else {
-                        logger.warning("CM: addIfMin - DB insert failed for user " + user.getLogin());
-                        return false;
-                    }
-                } else {
-                    logger.info("CM: addIfMin - Candidate not less than current min for user " + user.getLogin());
-                    return false;
-                }
+            // Find current minimum element in cache
+            List<StudyGroup> groups = optimisticRead(collectionCache::values);
+            Optional<StudyGroup> minElementOpt = BulkScans.run(groups, stream -> stream.min(StudyGroup::compareTo));
+
+            if (minElementOpt.isPresent() && candidate.compareTo(minElementOpt.get()) >= 0) {
+                logger.info("CM: addIfMin - Candidate not less than current min for user " + user.name());
+                return false;
+            }
+
+            candidate.setOwnerLogin(user.name());  // Set ownership
+            candidate.setUserLogin(user.name());
+            deduplicateStrings(candidate);
+            // The database round trip happens under the owner stripe only, other owners keep going
+            int generatedId = databaseManager.addObject(candidate, user);
+            if (generatedId == -1) {
+                logger.warning("CM: addIfMin - DB insert failed for user " + user.name());
+                return false;
+            }
+            // No re-check after the round trip: groups order by id, and what other owners insert meanwhile
+            // gets a fresh sequence id above every cached one, so it cannot undercut the minimum seen above
+            try {
+                writeLock.lock();
+                candidate.setId(generatedId);
+                insertLocked(candidate);
+            } finally {
+                writeLock.unlock();
             }
+            logger.info("CM: addIfMin - Candidate added as it is less than current min for user " + user.name());
+            return true;
         } finally {
-            writeLock.unlock();
+            ownerLock.unlock();
         }
     }
 
 
     public long removeLower(StudyGroup thresholdFromClient, User user) {
-        logger.info("CM: RemoveLower for user " + user.getLogin());
-        logger.warning("CM: RemoveLower - Current implementation is cache-first and needs DB-level atomic operation with ownership.");
+        logger.info("CM: RemoveLower for user " + user.name());
 
-        List<StudyGroup> toRemoveFromCache = collectionCache.values().stream()
-                .filter(group -> group.getOwnerLogin() != null && group.getOwnerLogin().equals(user.getLogin()))
-                .filter(group -> group.compareTo(thresholdFromClient) < 0)
-                .collect(Collectors.toList());
+        Lock ownerLock = ownerLocks.forKey(user.name());
+        ownerLock.lock();
+        try {
+            // groups compare by id: the owner bitmap picks the candidates, the id kernel runs over those only
+            RoaringBitmap ids = withIndexes(indexes -> {
+                int[] owned = indexes.byOwner().get(user.name()).toArray();
+                long[] mask = ScanKernels.allRows(owned.length);
+                ScanKernels.less(owned, owned.length, thresholdFromClient.getId(), mask);
+                return ScanKernels.select(owned, mask);
+            });
+            List<StudyGroup> toRemoveFromCache = getByIds(ids);
+
+            if (toRemoveFromCache.isEmpty()) {
+                logger.info("CM: RemoveLower - No elements owned by user " + user.name() + " found smaller than threshold in cache.");
+                return 0;
+            }
 
-        if (toRemoveFromCache.isEmpty()) {
-            logger.info("CM: RemoveLower - No elements owned by user " + user.getLogin() + " found smaller than threshold in cache.");
-            return 0;
+            List<StudyGroup> removed = new ArrayList<>();
+            for (StudyGroup group : toRemoveFromCache) {
+                if (databaseManager.deleteObject(group.getId(), user)) {
+                    removed.add(group);
+                } else {
+                    logger.warning("CM: RemoveLower - Failed to delete group ID " + group.getId() + " from DB (not owned or other DB error).");
+                }
+            }
+            removeElements(removed);
+            logger.info("CM: RemoveLower - Successfully removed " + removed.size() + " elements from DB and cache for user " + user.name());
+            return removed.size();
+        } finally {
+            ownerLock.unlock();
         }
+    }
 
-        long removedCountDB = 0;
-        for (StudyGroup group : toRemoveFromCache) {
-            if (databaseManager.deleteObject(group.getId(), user.getLogin())) {
-                collectionCache.remove(group.getId());
-                removedCountDB++;
-            } else {
-                logger.warning("CM: RemoveLower - Failed to delete group ID " + group.getId() + " from DB (not owned or other DB error).");
-
-            }
+    /**
+     * Deletes the element from the database and the cache under the owner stripe.
+     * @return false if there is no such element, it does not belong to the user or the database refused
+     */
+    public boolean removeById(int id, User user) {
+        Lock ownerLock = ownerLocks.forKey(user.name());
+        ownerLock.lock();
+        try {
+            StudyGroup stored = getById(id);
+            if (stored == null || !databaseManager.deleteObject(id, user)) return false;
+            removeElement(stored);
+            return true;
+        } finally {
+            ownerLock.unlock();
         }
-        logger.info("CM: RemoveLower - Successfully removed " + removedCountDB + " elements from DB and cache for user " + user.getLogin());
-        return removedCountDB;
     }
 
-    public boolean checkExist(int id) {
+    /**
+     * Deletes every element owned by the user from the database and the cache.
+     * @return false if the database refused the deletion
+     */
+    public boolean removeAllOwnedBy(User user) {
+        Lock ownerLock = ownerLocks.forKey(user.name());
+        ownerLock.lock();
         try {
-            readLock.lock();
-            return collection.stream()
-                    .anyMatch((x) -> x.getId() == id);
+            List<StudyGroup> userGroups = ownedBy(user.name());
+            List<Integer> ids = userGroups.stream()
+                    .map(StudyGroup::getId)
+                    .toList();
+            if (!databaseManager.deleteAllObjects(user, ids)) return false;
+            removeElements(userGroups);
+            return true;
         } finally {
-            readLock.unlock();
+            ownerLock.unlock();
         }
     }
 
+    /**
+     * @return the elements of the owner, found through the owner bitmap rather than a scan
+     */
+    private List<StudyGroup> ownedBy(String login) {
+        return getByIds(withIndexes(indexes -> indexes.byOwner().get(login).copy()));
+    }
+
+    public boolean checkExist(int id) {
+        return optimisticRead(() -> collectionCache.containsKey(id));
+    }
+
     public static String timeFormatter(LocalDateTime localDateTime) {
         if (localDateTime == null) return null;
         if (localDateTime.format(DateTimeFormatter.ofPattern("yyyy-MM-dd"))
@@ -205,77 +497,211 @@ public class CollectionManager {
         }
     }
 
+    /**
+     * Updates the element in the database and swaps it in the cache while holding the owner stripe,
+     * so concurrent updates and removals of the same id cannot reorder between the two stores.
+     * @return false if the element does not belong to the user or the database update failed
+     */
+    public boolean updateElement(int id, StudyGroup newElement, User user) {
+        Lock ownerLock = ownerLocks.forKey(user.name());
+        ownerLock.lock();
+        try {
+            if (!databaseManager.updateObject(id, newElement, user)) return false;
+            newElement.setOwnerLogin(user.name());
+            newElement.setUserLogin(user.name());
+            editById(id, newElement);
+            return true;
+        } finally {
+            ownerLock.unlock();
+        }
+    }
+
     public void editById(int id, StudyGroup newElement) {
+        newElement.setId(id);
+        if (!newElement.validate()) throw new RuntimeException(new InvalidForm("Количество студентов должно быть положительным"));
+        deduplicateStrings(newElement);
+        StudyGroup stored = getById(id);
+        Lock ownerLock = ownerLocks.forKey(ownerOf(stored != null ? stored : newElement));
+        ownerLock.lock();
         try {
             writeLock.lock();
-            StudyGroup pastElement = this.getById(id);
-            this.removeElement(pastElement);
-            newElement.setId(id);
-            this.addElement(newElement);
+            insertLocked(newElement); // replaces the past element and logs an UPDATE
             logger.info("Объект с айди " + id + " изменен");
-        } catch (InvalidForm e) {
-            throw new RuntimeException(e);
         } finally {
             writeLock.unlock();
+            ownerLock.unlock();
         }
     }
 
     public String collectionType() {
-        try {
-            readLock.lock();
-            return collection.getClass().getName();
-        } finally {
-            readLock.unlock();
-        }
+        return collectionCache.getClass().getName();
     }
 
     public int collectionSize() {
-        try {
-            readLock.lock();
-            return collection.size();
-        } finally {
-            readLock.unlock();
-        }
+        return optimisticRead(collectionCache::size);
     }
 
     public String getLastSaveTime() {
-        try {
-            readLock.lock();
-            return timeFormatter(lastSaveTime);
-        } finally {
-            readLock.unlock();
-        }
+        return timeFormatter(optimisticRead(() -> lastSaveTime));
     }
 
     public boolean removeAnyByFormOfEducation(FormOfEducation form, User user) {
-        logger.info("CM: RemoveAnyByForm for user " + user.getLogin() + " and form " + form);
-        Optional<StudyGroup> candidateToRemoveOpt = collectionCache.values().stream()
-                .filter(sg -> sg.getOwnerLogin() != null && sg.getOwnerLogin().equals(user.getLogin()))
-                .filter(sg -> sg.getFormOfEducation() == form)
-                .findFirst();
-
-        if (candidateToRemoveOpt.isPresent()) {
-            StudyGroup groupToRemove = candidateToRemoveOpt.get();
+        logger.info("CM: RemoveAnyByForm for user " + user.name() + " and form " + form);
+        Lock ownerLock = ownerLocks.forKey(user.name());
+        ownerLock.lock();
+        try {
+            // form AND owner as a bitmap intersection instead of a scan of the whole cache
+            StudyGroup groupToRemove = withIndexes(indexes -> {
+                int id = RoaringBitmap.and(indexes.byForm().get(form), indexes.byOwner().get(user.name())).first();
+                return id < 0 ? null : collectionCache.get(id);
+            });
+
+            if (groupToRemove == null) {
+                logger.info("CM: RemoveAnyByForm - No element with form " + form + " owned by user " + user.name() + " found in cache.");
+                return false;
+            }
             logger.info("CM: RemoveAnyByForm - Candidate ID " + groupToRemove.getId() + " found in cache. Attempting DB delete.");
-            boolean success = databaseManager.deleteObject(groupToRemove.getId(), user.getLogin());
-            if (success) {
-                collectionCache.remove(groupToRemove.getId());
+            if (databaseManager.deleteObject(groupToRemove.getId(), user)) {
+                removeElement(groupToRemove);
                 logger.info("CM: RemoveAnyByForm - Successfully removed group ID " + groupToRemove.getId() + " from DB and cache.");
                 return true;
-            } else {
-                logger.warning("CM: RemoveAnyByForm - DB delete failed for group ID " + groupToRemove.getId());
-                return false;
             }
-        } else {
-            logger.info("CM: RemoveAnyByForm - No element with form " + form + " owned by user " + user.getLogin() + " found in cache.");
+            logger.warning("CM: RemoveAnyByForm - DB delete failed for group ID " + groupToRemove.getId());
             return false;
+        } finally {
+            ownerLock.unlock();
+        }
+    }
+
+    /**
+     * @return the elements whose field lies in {@code [min, max]}, in id order
+     */
+    public List<StudyGroup> findInRange(StudyGroupQuery.NumericField field, long min, long max) {
+        return getByIds(withIndexes(indexes -> field.index(indexes).range(min, max)));
+    }
+
+    /**
+     * @return up to k nearest ids to the point, nearest first
+     */
+    public List<SpatialGridIndex.Neighbour> nearest(CollectionIndexes.SpatialField field, double x, double y, int k) {
+        return withIndexes(indexes -> indexes.spatial(field).nearest(x, y, k));
+    }
+
+    /**
+     * @return the elements whose point lies inside the box, borders included, in id order
+     */
+    public List<StudyGroup> inBoundingBox(CollectionIndexes.SpatialField field, double minX, double minY, double maxX, double maxY) {
+        return getByIds(withIndexes(indexes -> indexes.spatial(field).boundingBox(minX, minY, maxX, maxY)));
+    }
+
+    /**
+     * Selects the k elements with the largest (or smallest) value of the field; groups without a value are skipped.
+     * An indexed field is answered by walking its range index from the end, any other field by bounded heaps
+     * filled in parallel over a snapshot of the cache.
+     * @return at most k elements, best first; ties are broken by the smaller id
+     */
+    public List<StudyGroup> top(StudyGroupQuery.NumericField field, int k, boolean largest) {
+        if (k <= 0) return Collections.emptyList();
+        if (field.isIndexed()) {
+            List<Integer> ids = withIndexes(indexes -> {
+                List<Integer> result = new ArrayList<>(k);
+                for (RoaringBitmap bitmap : field.index(indexes).ordered(largest).values()) {
+                    // ids in a bitmap share the value and come out ascending, which is the tie order
+                    bitmap.forEach(id -> {
+                        if (result.size() < k) result.add(id);
+                    });
+                    if (result.size() >= k) break;
+                }
+                return result;
+            });
+            return optimisticRead(() -> ids.stream()
+                    .map(collectionCache::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()));
+        }
+
+        Comparator<StudyGroup> byValue = Comparator.comparing(field::valueOf);
+        Comparator<StudyGroup> order = (largest ? byValue : byValue.reversed())
+                .thenComparing(Comparator.comparingInt(StudyGroup::getId).reversed());
+        List<StudyGroup> groups = optimisticRead(collectionCache::values);
+        return BulkScans.run(groups, stream -> stream
+                .filter(group -> field.valueOf(group) != null)
+                .collect(() -> new TopK<>(k, order), TopK::offer, TopK::merge)
+                .toList());
+    }
+
+    /**
+     * Case-insensitive lookup of the text field by prefix or by substring.
+     * @return at most limit matching elements, in id order
+     * @throws IllegalArgumentException if the text is empty
+     */
+    public List<StudyGroup> search(CollectionIndexes.TextField field, boolean prefix, String text, int limit) {
+        if (text.isEmpty()) throw new IllegalArgumentException("search text must not be empty");
+        return getByIds(withIndexes(indexes -> prefix
+                ? indexes.text(field).prefix(text, limit)
+                : indexes.text(field).substring(text, limit)));
+    }
+
+    /**
+     * Deletes the user's elements whose field lies in {@code [min, max]}, found by a walk of the
+     * range index intersected with the owner bitmap.
+     * @return the number of removed elements, or -1 if the database refused the deletion
+     */
+    public int removeInRange(StudyGroupQuery.NumericField field, long min, long max, User user) {
+        logger.info("CM: RemoveInRange " + field + " [" + min + ", " + max + "] for user " + user.name());
+        Lock ownerLock = ownerLocks.forKey(user.name());
+        ownerLock.lock();
+        try {
+            RoaringBitmap ids = withIndexes(indexes ->
+                    RoaringBitmap.and(field.index(indexes).range(min, max), indexes.byOwner().get(user.name())));
+            if (ids.isEmpty()) return 0;
+            List<StudyGroup> toRemove = getByIds(ids);
+            List<Integer> idList = toRemove.stream().map(StudyGroup::getId).toList();
+            if (!databaseManager.deleteAllObjects(user, idList)) return -1;
+            removeElements(toRemove);
+            return toRemove.size();
+        } finally {
+            ownerLock.unlock();
+        }
+    }
+
+    /**
+     * Swaps the repetitive strings of the element for their canonical instances,
+     * so thousands of groups of one owner share a single login string.
+     */
+    private void deduplicateStrings(StudyGroup studyGroup) {
+        StringDeduplicator strings = StringDeduplicator.getInstance();
+        if (studyGroup.getOwnerLogin() != null) studyGroup.setOwnerLogin(strings.deduplicate(studyGroup.getOwnerLogin()));
+        studyGroup.setUserLogin(strings.deduplicate(studyGroup.getUserLogin()));
+
+        Person admin = studyGroup.getGroupAdmin();
+        Location location = admin.getLocation();
+        location.setName(strings.deduplicate(location.getName()));
+        String adminName = strings.deduplicate(admin.getName());
+        if (adminName != admin.getName()) {
+            studyGroup.setGroupAdmin(new Person(adminName, admin.getWeight(), admin.getEyeColor(),
+                    admin.getHairColor(), admin.getNationality(), location));
         }
     }
 
+    public String stringDeduplicationReport() {
+        StringDeduplicator strings = StringDeduplicator.getInstance();
+        return strings.distinctStrings() + " уникальных строк; с запуска заменено дубликатов: " + strings.getDuplicatesReplaced()
+                + " (оценка ~" + strings.getEstimatedDeduplicatedBytes() + " байт)";
+    }
+
+    /**
+     * Owner of the element. Groups added through 'add' only carry userLogin.
+     */
+    static String ownerOf(StudyGroup studyGroup) {
+        return studyGroup.getOwnerLogin() != null ? studyGroup.getOwnerLogin() : studyGroup.getUserLogin();
+    }
+
     public void removeElement(StudyGroup studyGroup) {
+        if (studyGroup == null) return;
         try {
             writeLock.lock();
-            collection.remove(studyGroup);
+            deleteLocked(studyGroup);
         } finally {
             writeLock.unlock();
         }
@@ -0,0 +1,244 @@
+package org.example.server.core;
+
+import org.example.common.models.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Column-per-field storage of StudyGroups.
+ * Every field lives in a primitive array indexed by a dense row number: numbers as ints/longs,
+ * enums as byte ordinals, dates as epoch days and strings as codes of a shared {@link StringDictionary}.
+ * A row costs around 80 bytes of heap instead of the ten-odd objects of a StudyGroup graph.
+ * StudyGroup objects are only materialized when a caller asks for one.
+ * <p>
+ * Removal moves the last row into the hole, so rows stay dense. Not thread-safe.
+ */
+public class ColumnarStudyGroupStore implements StudyGroupStore {
+    private static final byte NULL_ORDINAL = -1;
+    private static final long NULL_EXPELLED = 0L; // shouldBeExpelled is either null or > 0
+
+    private final StringDictionary dictionary = new StringDictionary();
+    private final IdRowIndex rowsById = new IdRowIndex();
+    private int rows;
+
+    private int[] ids;
+    private int[] nameCodes;
+    private int[] coordinateX;
+    private int[] coordinateY;
+    private long[] creationDays;
+    private long[] studentsCounts;
+    private long[] expelled;
+    private byte[] forms;
+    private byte[] semesters;
+    private int[] adminNameCodes;
+    private int[] adminWeights;
+    private byte[] eyeColors;
+    private byte[] hairColors;
+    private byte[] nationalities;
+    private int[] locationX;
+    private double[] locationY;
+    private int[] locationNameCodes;
+    private int[] ownerCodes;
+    private int[] userCodes;
+
+    public ColumnarStudyGroupStore() {
+        allocate(16);
+    }
+
+    @Override
+    public StudyGroup get(int id) {
+        int row = rowsById.get(id);
+        return row < 0 ? null : materialize(row);
+    }
+
+    @Override
+    public boolean containsKey(int id) {
+        return rowsById.get(id) >= 0;
+    }
+
+    @Override
+    public void put(int id, StudyGroup studyGroup) {
+        int row = rowsById.get(id);
+        if (row >= 0) {
+            releaseStrings(row);
+        } else {
+            if (rows == ids.length) allocate(rows * 2);
+            row = rows++;
+            rowsById.put(id, row);
+        }
+        write(row, id, studyGroup);
+    }
+
+    @Override
+    public boolean remove(int id) {
+        int row = rowsById.remove(id);
+        if (row < 0) return false;
+        releaseStrings(row);
+        int last = --rows;
+        if (row != last) {
+            moveRow(last, row);
+            rowsById.put(ids[row], row);
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        rows = 0;
+        rowsById.clear();
+        dictionary.clear();
+        allocate(16);
+    }
+
+    @Override
+    public int size() {
+        return rows;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return rows == 0;
+    }
+
+    @Override
+    public List<StudyGroup> values() {
+        List<StudyGroup> result = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            result.add(materialize(row));
+        }
+        return result;
+    }
+
+    private void write(int row, int id, StudyGroup studyGroup) {
+        Person admin = studyGroup.getGroupAdmin();
+        Location location = admin.getLocation();
+        ids[row] = id;
+        nameCodes[row] = dictionary.acquire(studyGroup.getName());
+        coordinateX[row] = studyGroup.getCoordinates().getX();
+        coordinateY[row] = studyGroup.getCoordinates().getY();
+        creationDays[row] = studyGroup.getCreationDate().toEpochDay();
+        studentsCounts[row] = studyGroup.getStudentsCount();
+        expelled[row] = studyGroup.getShouldBeExpelled() == null ? NULL_EXPELLED : studyGroup.getShouldBeExpelled();
+        forms[row] = ordinalOf(studyGroup.getFormOfEducation());
+        semesters[row] = ordinalOf(studyGroup.getSemesterEnum());
+        adminNameCodes[row] = dictionary.acquire(admin.getName());
+        adminWeights[row] = admin.getWeight();
+        eyeColors[row] = ordinalOf(admin.getEyeColor());
+        hairColors[row] = ordinalOf(admin.getHairColor());
+        nationalities[row] = ordinalOf(admin.getNationality());
+        locationX[row] = location.getX();
+        locationY[row] = location.getY();
+        locationNameCodes[row] = dictionary.acquire(location.getName());
+        ownerCodes[row] = dictionary.acquire(studyGroup.getOwnerLogin());
+        userCodes[row] = dictionary.acquire(studyGroup.getUserLogin());
+    }
+
+    private StudyGroup materialize(int row) {
+        Person admin = new Person(
+                dictionary.decode(adminNameCodes[row]),
+                adminWeights[row],
+                valueOf(Color.values(), eyeColors[row]),
+                valueOf(Color.values(), hairColors[row]),
+                valueOf(Country.values(), nationalities[row]),
+                new Location(locationX[row], locationY[row], dictionary.decode(locationNameCodes[row]))
+        );
+        Coordinates coordinates = new Coordinates(coordinateX[row], coordinateY[row]);
+        LocalDate creationDate = LocalDate.ofEpochDay(creationDays[row]);
+        Long expelledCount = expelled[row] == NULL_EXPELLED ? null : expelled[row];
+        String owner = dictionary.decode(ownerCodes[row]);
+
+        StudyGroup studyGroup;
+        if (owner != null) {
+            studyGroup = new StudyGroup(ids[row], dictionary.decode(nameCodes[row]), coordinates, creationDate,
+                    studentsCounts[row], expelledCount, valueOf(FormOfEducation.values(), forms[row]),
+                    valueOf(Semester.values(), semesters[row]), admin, owner);
+        } else {
+            studyGroup = new StudyGroup(dictionary.decode(nameCodes[row]), coordinates, studentsCounts[row],
+                    expelledCount, valueOf(FormOfEducation.values(), forms[row]),
+                    valueOf(Semester.values(), semesters[row]), admin);
+            studyGroup.setId(ids[row]);
+            studyGroup.setCreationDate(creationDate);
+        }
+        studyGroup.setUserLogin(dictionary.decode(userCodes[row]));
+        return studyGroup;
+    }
+
+    private void releaseStrings(int row) {
+        dictionary.release(nameCodes[row]);
+        dictionary.release(adminNameCodes[row]);
+        dictionary.release(locationNameCodes[row]);
+        dictionary.release(ownerCodes[row]);
+        dictionary.release(userCodes[row]);
+    }
+
+    private void moveRow(int from, int to) {
+        ids[to] = ids[from];
+        nameCodes[to] = nameCodes[from];
+        coordinateX[to] = coordinateX[from];
+        coordinateY[to] = coordinateY[from];
+        creationDays[to] = creationDays[from];
+        studentsCounts[to] = studentsCounts[from];
+        expelled[to] = expelled[from];
+        forms[to] = forms[from];
+        semesters[to] = semesters[from];
+        adminNameCodes[to] = adminNameCodes[from];
+        adminWeights[to] = adminWeights[from];
+        eyeColors[to] = eyeColors[from];
+        hairColors[to] = hairColors[from];
+        nationalities[to] = nationalities[from];
+        locationX[to] = locationX[from];
+        locationY[to] = locationY[from];
+        locationNameCodes[to] = locationNameCodes[from];
+        ownerCodes[to] = ownerCodes[from];
+        userCodes[to] = userCodes[from];
+    }
+
+    private void allocate(int capacity) {
+        ids = grow(ids, capacity);
+        nameCodes = grow(nameCodes, capacity);
+        coordinateX = grow(coordinateX, capacity);
+        coordinateY = grow(coordinateY, capacity);
+        creationDays = grow(creationDays, capacity);
+        studentsCounts = grow(studentsCounts, capacity);
+        expelled = grow(expelled, capacity);
+        forms = grow(forms, capacity);
+        semesters = grow(semesters, capacity);
+        adminNameCodes = grow(adminNameCodes, capacity);
+        adminWeights = grow(adminWeights, capacity);
+        eyeColors = grow(eyeColors, capacity);
+        hairColors = grow(hairColors, capacity);
+        nationalities = grow(nationalities, capacity);
+        locationX = grow(locationX, capacity);
+        locationY = grow(locationY, capacity);
+        locationNameCodes = grow(locationNameCodes, capacity);
+        ownerCodes = grow(ownerCodes, capacity);
+        userCodes = grow(userCodes, capacity);
+    }
+
+    private static int[] grow(int[] column, int capacity) {
+        return column == null || column.length > capacity ? new int[capacity] : Arrays.copyOf(column, capacity);
+    }
+
+    private static long[] grow(long[] column, int capacity) {
+        return column == null || column.length > capacity ? new long[capacity] : Arrays.copyOf(column, capacity);
+    }
+
+    private static double[] grow(double[] column, int capacity) {
+        return column == null || column.length > capacity ? new double[capacity] : Arrays.copyOf(column, capacity);
+    }
+
+    private static byte[] grow(byte[] column, int capacity) {
+        return column == null || column.length > capacity ? new byte[capacity] : Arrays.copyOf(column, capacity);
+    }
+
+    private static byte ordinalOf(Enum<?> value) {
+        return value == null ? NULL_ORDINAL : (byte) value.ordinal();
+    }
+
+    private static <E extends Enum<E>> E valueOf(E[] values, byte ordinal) {
+        return ordinal == NULL_ORDINAL ? null : values[ordinal];
+    }
+}
@@ -3,11 +3,17 @@ package org.example.server.core;
 import org.example.common.network.StatusCode;
 import org.example.common.network.User;
 import org.example.server.commands.Command;
+import org.example.server.commands.CommandClass;
 import org.example.common.network.Request;
 import org.example.common.network.Response;
 import org.example.server.exceptions.*;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Logger;
 
 /**
@@ -24,6 +30,14 @@ public class CommandManager {
      */
     private final List<String> commandHistory = new ArrayList<>();
     private final DatabaseManager databaseManager;
+    /**
+     * Serialized responses of cacheable commands; null when caching is off.
+     */
+    private ResponseCache responseCache;
+    /**
+     * Cacheable requests being computed right now; an equal request arriving meanwhile waits for the same result.
+     */
+    private final Map<ResponseCache.Key, CompletableFuture<Response>> inFlight = new ConcurrentHashMap<>();
 
     private static final Logger logger = Logger.getLogger(CommandManager.class.getName());
 
@@ -48,10 +62,22 @@ public class CommandManager {
         }
     }
 
+    public void setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
     public Collection<Command> getCommands() {
         return commands.values();
     }
 
+    /**
+     * @return the cost class of the requested command; an unknown command fails fast, so it counts as cheap
+     */
+    public CommandClass classOf(Request request) {
+        Command command = commands.get(request.getCommandName());
+        return command == null ? CommandClass.CHEAP_READ : command.getCommandClass();
+    }
+
     public void addToHistory(String userLogin, String commandName) {
         if (commandName == null || commandName.isBlank()) return;
         String entry = userLogin + ": " + commandName;
@@ -78,13 +104,82 @@ public class CommandManager {
             logger.severe("No such command: " + request.getCommandName());
             throw new NoSuchCommand();
         }
+        if (request.isExpired()) {
+            ServerMetrics.getInstance().recordExpired("перед исполнением");
+            throw new RequestExpired();
+        }
+
+        if (responseCache == null || request.getObject() != null || !command.isCacheable(request)) {
+            return executeCommand(command, request);
+        }
+        while (true) {
+            ResponseCache.Key key = responseCache.keyOf(request);
+            Response cached = responseCache.get(key);
+            if (cached != null) return cached;
 
+            CompletableFuture<Response> computation = new CompletableFuture<>();
+            CompletableFuture<Response> leader = inFlight.putIfAbsent(key, computation);
+            if (leader == null) return lead(command, request, key, computation);
+            ServerMetrics.getInstance().recordCoalesced();
+            Response shared = await(leader, request);
+            if (shared != null) return shared;
+            // the leader ran out of its own time; this request still has some, so compute it again
+        }
+    }
+
+    private Response lead(Command command, Request request, ResponseCache.Key key, CompletableFuture<Response> computation)
+            throws IllegalArguments, CommandRuntimeError, ExitObliged {
+        try {
+            Response response = executeCommand(command, request);
+            responseCache.put(key, response);
+            computation.complete(response);
+            return response;
+        } catch (IllegalArguments | CommandRuntimeError | ExitObliged | RuntimeException | Error e) {
+            computation.completeExceptionally(e); // followers must never be left waiting
+            throw e;
+        } finally {
+            inFlight.remove(key, computation);
+        }
+    }
+
+    /**
+     * Waits, no longer than the request's own deadline, for the equal request computed by another thread
+     * and shares its outcome, exceptions included.
+     * @return null if the leader expired while this request is still live and should be computed anew
+     */
+    private static Response await(CompletableFuture<Response> leader, Request request)
+            throws IllegalArguments, CommandRuntimeError, ExitObliged {
+        try {
+            if (request.getDeadline() == 0) return leader.get();
+            return leader.get(Math.max(0, request.getDeadline() - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            ServerMetrics.getInstance().recordExpired("ожидание общего запроса");
+            throw new RequestExpired();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CommandRuntimeError();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RequestExpired requestExpired) {
+                if (request.isExpired()) throw requestExpired;
+                return null;
+            }
+            if (cause instanceof IllegalArguments illegalArguments) throw illegalArguments;
+            if (cause instanceof CommandRuntimeError commandRuntimeError) throw commandRuntimeError;
+            if (cause instanceof ExitObliged exitObliged) throw exitObliged;
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            throw new CommandRuntimeError();
+        }
+    }
+
+    private Response executeCommand(Command command, Request request) throws IllegalArguments, CommandRuntimeError, ExitObliged {
         try {
             return command.execute(request);
         } catch (InvalidForm e) {
             logger.warning("Invalid form received for command: " + command.getName());
             return new Response(StatusCode.ERROR, "Ошибка: введены некорректные данные формы. " + e.getMessage());
         }
-}}
+    }
+}
 
 
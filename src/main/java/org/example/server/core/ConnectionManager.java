@@ -3,13 +3,17 @@ package org.example.server.core;
 import org.example.common.network.Request;
 import org.example.common.network.Response;
 import org.example.common.network.StatusCode;
+import org.example.common.utility.DirectBufferPool;
+import org.example.server.network.RequestDecoder;
 import org.example.server.network.RequestHandler;
+import org.example.server.network.ResponseSender;
 import org.example.server.network.ResponseWithAddress;
 
 import java.io.*;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.DatagramChannel;
+import java.util.Optional;
 import java.util.concurrent.*;
 import java.util.logging.Logger;
 
@@ -17,6 +21,7 @@ public class ConnectionManager implements Runnable {
     private final CommandManager commandManager;
     private final DatabaseManager databaseManager;
     private final DatagramChannel datagramChannel;
+    private final ResponseSender sender;
     private static final Logger connectionManagerLogger = Logger.getLogger(ConnectionManager.class.getName());
 
     private final ForkJoinPool forkJoinPool = new ForkJoinPool();
@@ -26,17 +31,18 @@ public class ConnectionManager implements Runnable {
         this.commandManager = commandManager;
         this.databaseManager = databaseManager;
         this.datagramChannel = datagramChannel;
+        this.sender = new ResponseSender(datagramChannel);
     }
 
     @Override
     public void run() {
-        ByteBuffer buffer = ByteBuffer.allocate(65507); // Max UDP packet size
+        sender.start();
 
         // Thread to periodically check completed futures
         new Thread(() -> {
             while (true) {
                 try {
-                    FutureManager.checkAllFutures(datagramChannel);
+                    FutureManager.checkAllFutures(sender);
                     Thread.sleep(50);
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
@@ -45,22 +51,23 @@ public class ConnectionManager implements Runnable {
         }).start();
 
         while (true) {
+            DirectBufferPool.Lease lease = DirectBufferPool.shared().acquire();
             try {
-                buffer.clear();
-                SocketAddress clientAddress = datagramChannel.receive(buffer);
+                SocketAddress clientAddress = datagramChannel.receive(lease.buffer());
                 if (clientAddress == null) {
+                    lease.release();
                     continue;
                 }
-                buffer.flip();
-
-                byte[] data = new byte[buffer.remaining()];
-                buffer.get(data);
+                long receivedAt = System.nanoTime();
+                lease.buffer().flip();
 
                 requestExecutor.submit(() -> {
-                    try (ByteArrayInputStream bais = new ByteArrayInputStream(data);
-                         ObjectInputStream ois = new ObjectInputStream(bais)) {
-
-                        Request userRequest = (Request) ois.readObject();
+                    try (lease) {
+                        Optional<Request> decoded = RequestDecoder.decode(lease.buffer());
+                        if (decoded.isEmpty()) return;
+                        Request userRequest = decoded.get();
+                        userRequest.setClientAddress(clientAddress);
+                        userRequest.markReceived(receivedAt);
                         connectionManagerLogger.info("Received request: " + userRequest.getCommandName());
 
                         if (!databaseManager.confirmUser(userRequest.getUser()) && !userRequest.getCommandName().equals("register")) {
@@ -68,7 +75,7 @@ public class ConnectionManager implements Runnable {
                             FutureManager.addImmediateResponse(new ResponseWithAddress(responseToUser, clientAddress));
                         } else {
                             Future<Response> future = forkJoinPool.submit(
-                                    new RequestHandler(commandManager, userRequest, datagramChannel, clientAddress)
+                                    new RequestHandler(commandManager, userRequest, sender, clientAddress)
                             );
 
                             if (future.isDone()) {
@@ -82,12 +89,11 @@ public class ConnectionManager implements Runnable {
                                 FutureManager.addFuture(future, clientAddress);
                             }
                         }
-                    } catch (IOException | ClassNotFoundException e) {
-                        connectionManagerLogger.severe("Error handling client data: " + e.getMessage());
                     }
                 });
 
             } catch (IOException e) {
+                lease.release();
                 connectionManagerLogger.severe("Error receiving packet: " + e.getMessage());
             }
         }
@@ -8,6 +8,7 @@ import java.sql.*;
 import java.sql.Date;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -24,6 +25,10 @@ public class DatabaseManager {
             "tuvwxyz0123456789<>?:@{!$%^&*()_+£$";
     private static final String PEPPER = "[g$J*(l;";
     private static final Logger databaseLogger = Logger.getLogger(DatabaseManager.class.getName());
+    /**
+     * {@link System#nanoTime()} deadline of the request served by the current thread, 0 if none.
+     */
+    private static final ThreadLocal<Long> deadline = ThreadLocal.withInitial(() -> 0L);
 
     public DatabaseManager(){
         try {
@@ -38,6 +43,30 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Bounds the statements of the current thread by the deadline of the request it serves.
+     * @param deadlineNanos {@link System#nanoTime()} deadline, or 0 to lift the bound
+     */
+    public static void setDeadline(long deadlineNanos) {
+        deadline.set(deadlineNanos);
+    }
+
+    /**
+     * Prepares a statement whose query timeout is what is left of the request deadline.
+     * @throws SQLTimeoutException if the deadline has already passed, so nothing is sent to the database
+     */
+    private PreparedStatement prepare(String sql) throws SQLException {
+        long end = deadline.get();
+        long remaining = end == 0 ? 0 : end - System.nanoTime();
+        if (end != 0 && remaining <= 0) {
+            ServerMetrics.getInstance().recordExpired("база данных");
+            throw new SQLTimeoutException("Request deadline expired");
+        }
+        PreparedStatement statement = connection.prepareStatement(sql);
+        if (end != 0) statement.setQueryTimeout((int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remaining + 999_999_999L)));
+        return statement;
+    }
+
     public void connect(){
         Properties info = null;
         try {
@@ -71,7 +100,7 @@ public class DatabaseManager {
 
         if (this.checkExistUser(login)) throw new SQLException("User already exists");
 
-        try (PreparedStatement ps = connection.prepareStatement(DatabaseCommands.addUser)) {
+        try (PreparedStatement ps = prepare(DatabaseCommands.addUser)) {
             ps.setString(1, login);
             ps.setString(2, this.getSHA512Hash(pass));
             ps.setString(3, salt);
@@ -81,7 +110,7 @@ public class DatabaseManager {
     }
 
     public boolean confirmUser(User inputUser){
-        try (PreparedStatement getUser = connection.prepareStatement(DatabaseCommands.getUser)) {
+        try (PreparedStatement getUser = prepare(DatabaseCommands.getUser)) {
             String login = inputUser.name();
             getUser.setString(1, login);
             ResultSet resultSet = getUser.executeQuery();
@@ -99,7 +128,7 @@ public class DatabaseManager {
     }
 
     public boolean checkExistUser(String login) throws SQLException {
-        try (PreparedStatement ps = connection.prepareStatement(DatabaseCommands.getUser)) {
+        try (PreparedStatement ps = prepare(DatabaseCommands.getUser)) {
             ps.setString(1, login);
             ResultSet resultSet = ps.executeQuery();
             return resultSet.next();
@@ -107,7 +136,7 @@ public class DatabaseManager {
     }
 
     public int addObject(StudyGroup studyGroup, User user) {
-        try (PreparedStatement ps = connection.prepareStatement(DatabaseCommands.addObject)) {
+        try (PreparedStatement ps = prepare(DatabaseCommands.addObject)) {
             ps.setString(1, studyGroup.getName());
             ps.setFloat(2, studyGroup.getCoordinates().getX());
             ps.setDouble(3, studyGroup.getCoordinates().getY());
@@ -141,7 +170,7 @@ public class DatabaseManager {
 
 
     public boolean updateObject(int id, StudyGroup studyGroup, User user){
-        try (PreparedStatement ps = connection.prepareStatement(DatabaseCommands.updateUserObject)) {
+        try (PreparedStatement ps = prepare(DatabaseCommands.updateUserObject)) {
             ps.setString(1, studyGroup.getName());
             ps.setFloat(2, studyGroup.getCoordinates().getX());
             ps.setDouble(3, studyGroup.getCoordinates().getY());
@@ -170,7 +199,7 @@ public class DatabaseManager {
     }
 
     public boolean deleteObject(int id, User user){
-        try (PreparedStatement ps = connection.prepareStatement(DatabaseCommands.deleteUserObject)) {
+        try (PreparedStatement ps = prepare(DatabaseCommands.deleteUserObject)) {
             ps.setString(1, user.name());
             ps.setInt(2, id);
             ResultSet resultSet = ps.executeQuery();
@@ -182,13 +211,13 @@ public class DatabaseManager {
     }
 
     public boolean deleteAllObjects(User user, List<Integer> ids){
-        try {
+        try (PreparedStatement ps = prepare(DatabaseCommands.deleteUserOwnedObjects)) {
+            // the deadline is checked once: stopping halfway would delete rows the cache still holds
+            ps.setQueryTimeout(0);
             for (Integer id : ids) {
-                try (PreparedStatement ps = connection.prepareStatement(DatabaseCommands.deleteUserOwnedObjects)) {
-                    ps.setString(1, user.name());
-                    ps.setInt(2, id);
-                    ps.execute();
-                }
+                ps.setString(1, user.name());
+                ps.setInt(2, id);
+                ps.execute();
             }
             databaseLogger.log(Level.WARNING, "Удалены все строки таблицы studygroup принадлежащие " + user.name());
             return true;
@@ -198,47 +227,6 @@ public class DatabaseManager {
         }
     }
 
-    public ArrayDeque<StudyGroup> loadCollection() {
-        try (PreparedStatement ps = connection.prepareStatement(DatabaseCommands.getAllObjects)) {
-            ResultSet resultSet = ps.executeQuery();
-            ArrayDeque<StudyGroup> collection = new ArrayDeque<>();
-            while (resultSet.next()) {
-                collection.add(new StudyGroup(
-                        resultSet.getInt("id"),
-                        resultSet.getString("group_name"),
-                        new Coordinates(
-                                (int) resultSet.getFloat("cord_x"),
-                                (int) resultSet.getDouble("cord_y")
-                        ),
-                        resultSet.getObject("creation_date", LocalDate.class),
-                        resultSet.getLong("students_count"),
-                        resultSet.getObject("expelled_students", Long.class),
-                        FormOfEducation.valueOf(resultSet.getString("form_of_education")),
-                        Semester.valueOf(resultSet.getString("semester_enum")),
-                        new Person(
-                                resultSet.getString("person_name"),
-                                resultSet.getInt("person_weight"),
-                                Color.valueOf(resultSet.getString("person_eye_color")),
-                                Color.valueOf(resultSet.getString("person_hair_color")),
-                                Country.valueOf(resultSet.getString("person_nationality")),
-                                new Location(
-                                        (int) resultSet.getDouble("person_location_x"),
-                                        resultSet.getLong("person_location_y"),
-                                        resultSet.getString("person_location_name")
-                                )
-                        ),
-                        resultSet.getString("owner_login")
-                ));
-            }
-            databaseLogger.info("Коллекция успешно загружена из таблицы");
-            return collection;
-        } catch (SQLException e) {
-            databaseLogger.log(Level.WARNING, "Коллекция пуста либо возникла ошибка при исполнении запроса", e);
-            return new ArrayDeque<>();
-        }
-    }
-
-
     private String generateRandomString() {
         Random random = new Random();
         StringBuilder sb = new StringBuilder(6);
@@ -1,14 +1,10 @@
 package org.example.server.core;
 
 import org.example.common.network.Response;
+import org.example.server.network.ResponseSender;
 import org.example.server.network.ResponseWithAddress;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.net.SocketAddress;
-import java.nio.ByteBuffer;
-import java.nio.channels.DatagramChannel;
 import java.util.List;
 import java.util.concurrent.*;
 import java.util.logging.Level;
@@ -28,12 +24,12 @@ public class FutureManager {
         immediateResponses.add(responseWithAddress);
     }
 
-    public static void checkAllFutures(DatagramChannel datagramChannel) {
+    public static void checkAllFutures(ResponseSender sender) {
         for (Future<ResponseWithAddress> future : futures) {
             if (future.isDone()) {
                 try {
                     ResponseWithAddress result = future.get();
-                    sendResponse(datagramChannel, result);
+                    sendResponse(sender, result);
                 } catch (InterruptedException | ExecutionException e) {
                     logger.log(Level.SEVERE, "Error handling future: ", e);
                 } finally {
@@ -44,26 +40,15 @@ public class FutureManager {
 
         // Handle immediate responses
         for (ResponseWithAddress response : immediateResponses) {
-            sendResponse(datagramChannel, response);
+            sendResponse(sender, response);
             immediateResponses.remove(response);
         }
     }
 
-    private static void sendResponse(DatagramChannel datagramChannel, ResponseWithAddress result) {
-        try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ObjectOutputStream oos = new ObjectOutputStream(baos);
-            oos.writeObject(result.getResponse());
-            oos.flush();
-
-            byte[] responseBytes = baos.toByteArray();
-            ByteBuffer buffer = ByteBuffer.wrap(responseBytes);
-
-            datagramChannel.send(buffer, result.getClientAddress());
-            logger.info("Sent response to " + result.getClientAddress());
-        } catch (IOException e) {
-            logger.severe("Failed to send response: " + e.getMessage());
-        }
+    private static void sendResponse(ResponseSender sender, ResponseWithAddress result) {
+        if (result.getResponse() == null) return; // dropped: the client no longer waits for it
+        sender.send(result.getResponse(), result.getClientAddress());
+        logger.info("Queued response to " + result.getClientAddress());
     }
 
     private static class FutureWrapper implements Future<ResponseWithAddress> {
@@ -0,0 +1,79 @@
+package org.example.server.core;
+
+/**
+ * Open-addressing map from positive ids to row numbers, with backward-shift deletion.
+ * Key 0 marks an empty slot, so non-positive ids are never looked up.
+ */
+class IdRowIndex {
+    private static final int EMPTY = 0;
+
+    private int[] keys = new int[32];
+    private int[] values = new int[32];
+    private int size;
+
+    int get(int id) {
+        if (id <= 0) return -1;
+        int mask = keys.length - 1;
+        for (int i = slotOf(id, mask); ; i = (i + 1) & mask) {
+            if (keys[i] == id) return values[i];
+            if (keys[i] == EMPTY) return -1;
+        }
+    }
+
+    void put(int id, int row) {
+        if (id <= 0) throw new IllegalArgumentException("StudyGroup id must be > 0. Received: " + id);
+        int mask = keys.length - 1;
+        int i = slotOf(id, mask);
+        while (keys[i] != EMPTY && keys[i] != id) i = (i + 1) & mask;
+        if (keys[i] == EMPTY) size++;
+        keys[i] = id;
+        values[i] = row;
+        if (size * 2 > keys.length) resize(keys.length * 2);
+    }
+
+    int remove(int id) {
+        if (id <= 0) return -1;
+        int mask = keys.length - 1;
+        int i = slotOf(id, mask);
+        while (keys[i] != id) {
+            if (keys[i] == EMPTY) return -1;
+            i = (i + 1) & mask;
+        }
+        int row = values[i];
+        size--;
+        // shift following entries back so probe chains stay unbroken
+        int hole = i;
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = slotOf(keys[j], mask);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = EMPTY;
+        return row;
+    }
+
+    void clear() {
+        keys = new int[32];
+        values = new int[32];
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) put(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    private static int slotOf(int id, int mask) {
+        int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
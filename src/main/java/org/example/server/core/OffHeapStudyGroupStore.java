@@ -0,0 +1,458 @@
+package org.example.server.core;
+
+import org.example.common.models.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemoryLayout.PathElement;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_DOUBLE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+/**
+ * StudyGroup storage outside the Java heap.
+ * Every element is a fixed-size {@link #RECORD} in one record segment; strings are UTF-8 bytes
+ * appended to a second segment and referenced as {@code offset << 24 | length}. The heap only keeps
+ * the id to slot index, so its size does not depend on the collection size.
+ * <p>
+ * Without a file both segments are plain native memory. With a file they are memory-mapped
+ * ({@code <file>.records} and {@code <file>.strings}) and the store reopens with the contents of its last
+ * {@link #checkpoint()}, which makes it a persistent snapshot of the cache. The first change after a
+ * checkpoint marks the files dirty on disk, so a snapshot left by a crash is discarded on open rather than
+ * trusted half-written. Not thread-safe.
+ */
+public class OffHeapStudyGroupStore implements StudyGroupStore {
+    private static final long MAGIC = 0x5354554459475232L; // "STUDYGR2"
+    private static final long HEADER_SIZE = 24; // magic, used count, state
+    private static final long CLEAN = 1;
+    private static final long DIRTY = 2;
+    private static final long NULL_REF = -1L;
+    private static final byte NULL_ORDINAL = -1;
+    private static final long NULL_EXPELLED = 0L; // shouldBeExpelled is either null or > 0
+    private static final int MAX_STRING_BYTES = (1 << 24) - 1;
+
+    static final StructLayout RECORD = MemoryLayout.structLayout(
+            JAVA_LONG.withName("creationDay"),
+            JAVA_LONG.withName("studentsCount"),
+            JAVA_LONG.withName("expelled"),
+            JAVA_DOUBLE.withName("locationY"),
+            JAVA_LONG.withName("name"),
+            JAVA_LONG.withName("adminName"),
+            JAVA_LONG.withName("locationName"),
+            JAVA_LONG.withName("owner"),
+            JAVA_LONG.withName("user"),
+            JAVA_INT.withName("id"),
+            JAVA_INT.withName("coordinateX"),
+            JAVA_INT.withName("coordinateY"),
+            JAVA_INT.withName("adminWeight"),
+            JAVA_INT.withName("locationX"),
+            JAVA_BYTE.withName("form"),
+            JAVA_BYTE.withName("semester"),
+            JAVA_BYTE.withName("eyeColor"),
+            JAVA_BYTE.withName("hairColor"),
+            JAVA_BYTE.withName("nationality"),
+            MemoryLayout.paddingLayout(7)
+    ).withName("StudyGroup");
+
+    private static final long CREATION_DAY = offsetOf("creationDay");
+    private static final long STUDENTS_COUNT = offsetOf("studentsCount");
+    private static final long EXPELLED = offsetOf("expelled");
+    private static final long LOCATION_Y = offsetOf("locationY");
+    private static final long NAME = offsetOf("name");
+    private static final long ADMIN_NAME = offsetOf("adminName");
+    private static final long LOCATION_NAME = offsetOf("locationName");
+    private static final long OWNER = offsetOf("owner");
+    private static final long USER = offsetOf("user");
+    private static final long ID = offsetOf("id");
+    private static final long COORDINATE_X = offsetOf("coordinateX");
+    private static final long COORDINATE_Y = offsetOf("coordinateY");
+    private static final long ADMIN_WEIGHT = offsetOf("adminWeight");
+    private static final long LOCATION_X = offsetOf("locationX");
+    private static final long FORM = offsetOf("form");
+    private static final long SEMESTER = offsetOf("semester");
+    private static final long EYE_COLOR = offsetOf("eyeColor");
+    private static final long HAIR_COLOR = offsetOf("hairColor");
+    private static final long NATIONALITY = offsetOf("nationality");
+    private static final long[] STRING_FIELDS = {NAME, ADMIN_NAME, LOCATION_NAME, OWNER, USER};
+
+    private final IdRowIndex slotsById = new IdRowIndex();
+    private final Region records;
+    private final Region strings;
+    private int slots;
+    private long liveStringBytes;
+
+    /**
+     * Store in anonymous native memory.
+     */
+    public OffHeapStudyGroupStore() {
+        this.records = new Region(null, HEADER_SIZE + 64 * RECORD.byteSize());
+        this.strings = new Region(null, HEADER_SIZE + 4096);
+    }
+
+    /**
+     * Store mapped onto {@code <file>.records} and {@code <file>.strings}, reloading what they already hold.
+     */
+    public OffHeapStudyGroupStore(Path file) {
+        this.records = new Region(file.resolveSibling(file.getFileName() + ".records"), HEADER_SIZE + 64 * RECORD.byteSize());
+        this.strings = new Region(file.resolveSibling(file.getFileName() + ".strings"), HEADER_SIZE + 4096);
+        if (!records.isClean() || !strings.isClean()) {
+            // no checkpoint since the last change: the rows may be torn, start empty
+            records.setUsed(0);
+            strings.setUsed(0);
+        }
+        this.slots = (int) records.used();
+        for (int slot = 0; slot < slots; slot++) {
+            long base = baseOf(slot);
+            slotsById.put(records.segment.get(JAVA_INT, base + ID), slot);
+            for (long field : STRING_FIELDS) {
+                liveStringBytes += lengthOf(records.segment.get(JAVA_LONG, base + field));
+            }
+        }
+    }
+
+    @Override
+    public StudyGroup get(int id) {
+        int slot = slotsById.get(id);
+        return slot < 0 ? null : materialize(slot);
+    }
+
+    @Override
+    public boolean containsKey(int id) {
+        return slotsById.get(id) >= 0;
+    }
+
+    @Override
+    public void put(int id, StudyGroup studyGroup) {
+        markDirty();
+        // strings go first: compaction walks the occupied slots and must not see a half-written one
+        long[] stringRefs = appendStrings(studyGroup);
+        int slot = slotsById.get(id);
+        if (slot >= 0) {
+            releaseStrings(slot);
+        } else {
+            records.ensureCapacity(HEADER_SIZE + (slots + 1L) * RECORD.byteSize());
+            slot = slots++;
+            slotsById.put(id, slot);
+        }
+        write(slot, id, studyGroup, stringRefs);
+        records.setUsed(slots);
+    }
+
+    @Override
+    public boolean remove(int id) {
+        int slot = slotsById.remove(id);
+        if (slot < 0) return false;
+        markDirty();
+        releaseStrings(slot);
+        int last = --slots;
+        if (slot != last) {
+            MemorySegment.copy(records.segment, baseOf(last), records.segment, baseOf(slot), RECORD.byteSize());
+            slotsById.put(records.segment.get(JAVA_INT, baseOf(slot) + ID), slot);
+        }
+        records.setUsed(slots);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        markDirty();
+        slots = 0;
+        liveStringBytes = 0;
+        slotsById.clear();
+        records.setUsed(0);
+        strings.setUsed(0);
+    }
+
+    @Override
+    public int size() {
+        return slots;
+    }
+
+    /**
+     * Forces both files to disk and marks them clean, so the next open reloads this state.
+     */
+    @Override
+    public void checkpoint() {
+        records.force();
+        strings.force();
+        strings.setState(CLEAN);
+        records.setState(CLEAN);
+        strings.force();
+        records.force();
+    }
+
+    /**
+     * Before the first change after a checkpoint, records on disk that the files no longer hold a snapshot.
+     */
+    private void markDirty() {
+        if (!records.isClean() && !strings.isClean()) return;
+        records.setState(DIRTY);
+        strings.setState(DIRTY);
+        records.force();
+        strings.force();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return slots == 0;
+    }
+
+    @Override
+    public List<StudyGroup> values() {
+        List<StudyGroup> result = new ArrayList<>(slots);
+        for (int slot = 0; slot < slots; slot++) {
+            result.add(materialize(slot));
+        }
+        return result;
+    }
+
+    private void write(int slot, int id, StudyGroup studyGroup, long[] stringRefs) {
+        Person admin = studyGroup.getGroupAdmin();
+        Location location = admin.getLocation();
+        MemorySegment segment = records.segment;
+        long base = baseOf(slot);
+        segment.set(JAVA_LONG, base + CREATION_DAY, studyGroup.getCreationDate().toEpochDay());
+        segment.set(JAVA_LONG, base + STUDENTS_COUNT, studyGroup.getStudentsCount());
+        segment.set(JAVA_LONG, base + EXPELLED,
+                studyGroup.getShouldBeExpelled() == null ? NULL_EXPELLED : studyGroup.getShouldBeExpelled());
+        segment.set(JAVA_DOUBLE, base + LOCATION_Y, location.getY());
+        for (int f = 0; f < STRING_FIELDS.length; f++) {
+            segment.set(JAVA_LONG, base + STRING_FIELDS[f], stringRefs[f]);
+        }
+        segment.set(JAVA_INT, base + ID, id);
+        segment.set(JAVA_INT, base + COORDINATE_X, studyGroup.getCoordinates().getX());
+        segment.set(JAVA_INT, base + COORDINATE_Y, studyGroup.getCoordinates().getY());
+        segment.set(JAVA_INT, base + ADMIN_WEIGHT, admin.getWeight());
+        segment.set(JAVA_INT, base + LOCATION_X, location.getX());
+        segment.set(JAVA_BYTE, base + FORM, ordinalOf(studyGroup.getFormOfEducation()));
+        segment.set(JAVA_BYTE, base + SEMESTER, ordinalOf(studyGroup.getSemesterEnum()));
+        segment.set(JAVA_BYTE, base + EYE_COLOR, ordinalOf(admin.getEyeColor()));
+        segment.set(JAVA_BYTE, base + HAIR_COLOR, ordinalOf(admin.getHairColor()));
+        segment.set(JAVA_BYTE, base + NATIONALITY, ordinalOf(admin.getNationality()));
+    }
+
+    private StudyGroup materialize(int slot) {
+        MemorySegment segment = records.segment;
+        long base = baseOf(slot);
+        Person admin = new Person(
+                readString(segment.get(JAVA_LONG, base + ADMIN_NAME)),
+                segment.get(JAVA_INT, base + ADMIN_WEIGHT),
+                valueOf(Color.values(), segment.get(JAVA_BYTE, base + EYE_COLOR)),
+                valueOf(Color.values(), segment.get(JAVA_BYTE, base + HAIR_COLOR)),
+                valueOf(Country.values(), segment.get(JAVA_BYTE, base + NATIONALITY)),
+                new Location(segment.get(JAVA_INT, base + LOCATION_X), segment.get(JAVA_DOUBLE, base + LOCATION_Y),
+                        readString(segment.get(JAVA_LONG, base + LOCATION_NAME)))
+        );
+        int id = segment.get(JAVA_INT, base + ID);
+        String name = readString(segment.get(JAVA_LONG, base + NAME));
+        Coordinates coordinates = new Coordinates(segment.get(JAVA_INT, base + COORDINATE_X), segment.get(JAVA_INT, base + COORDINATE_Y));
+        LocalDate creationDate = LocalDate.ofEpochDay(segment.get(JAVA_LONG, base + CREATION_DAY));
+        long studentsCount = segment.get(JAVA_LONG, base + STUDENTS_COUNT);
+        long expelled = segment.get(JAVA_LONG, base + EXPELLED);
+        Long expelledCount = expelled == NULL_EXPELLED ? null : expelled;
+        FormOfEducation form = valueOf(FormOfEducation.values(), segment.get(JAVA_BYTE, base + FORM));
+        Semester semester = valueOf(Semester.values(), segment.get(JAVA_BYTE, base + SEMESTER));
+        String owner = readString(segment.get(JAVA_LONG, base + OWNER));
+
+        StudyGroup studyGroup;
+        if (owner != null) {
+            studyGroup = new StudyGroup(id, name, coordinates, creationDate, studentsCount, expelledCount, form, semester, admin, owner);
+        } else {
+            studyGroup = new StudyGroup(name, coordinates, studentsCount, expelledCount, form, semester, admin);
+            studyGroup.setId(id);
+            studyGroup.setCreationDate(creationDate);
+        }
+        studyGroup.setUserLogin(readString(segment.get(JAVA_LONG, base + USER)));
+        return studyGroup;
+    }
+
+    /**
+     * Appends the strings of the element in {@link #STRING_FIELDS} order and returns their references.
+     */
+    private long[] appendStrings(StudyGroup studyGroup) {
+        Person admin = studyGroup.getGroupAdmin();
+        String[] values = {studyGroup.getName(), admin.getName(), admin.getLocation().getName(),
+                studyGroup.getOwnerLogin(), studyGroup.getUserLogin()};
+        byte[][] encoded = new byte[values.length][];
+        long total = 0;
+        for (int f = 0; f < values.length; f++) {
+            if (values[f] == null) continue;
+            encoded[f] = values[f].getBytes(StandardCharsets.UTF_8);
+            if (encoded[f].length > MAX_STRING_BYTES) throw new IllegalArgumentException("String is too long for off-heap storage");
+            total += encoded[f].length;
+        }
+        if (strings.used() > 2 * liveStringBytes + 65536) compactStrings();
+
+        long used = strings.used();
+        strings.ensureCapacity(HEADER_SIZE + used + total);
+        long[] refs = new long[values.length];
+        for (int f = 0; f < values.length; f++) {
+            if (encoded[f] == null) {
+                refs[f] = NULL_REF;
+                continue;
+            }
+            MemorySegment.copy(encoded[f], 0, strings.segment, JAVA_BYTE, HEADER_SIZE + used, encoded[f].length);
+            refs[f] = (used << 24) | encoded[f].length;
+            used += encoded[f].length;
+        }
+        strings.setUsed(used);
+        liveStringBytes += total;
+        return refs;
+    }
+
+    private String readString(long ref) {
+        if (ref == NULL_REF) return null;
+        byte[] bytes = new byte[lengthOf(ref)];
+        MemorySegment.copy(strings.segment, JAVA_BYTE, HEADER_SIZE + (ref >>> 24), bytes, 0, bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void releaseStrings(int slot) {
+        long base = baseOf(slot);
+        for (long field : STRING_FIELDS) {
+            liveStringBytes -= lengthOf(records.segment.get(JAVA_LONG, base + field));
+        }
+    }
+
+    /**
+     * Slides the live strings down to the start of the string region, dropping the ones of removed or updated slots.
+     * Works in place: only the references are sorted on the heap, the bytes move within the segment.
+     */
+    private void compactStrings() {
+        long[] refs = new long[slots * STRING_FIELDS.length];
+        int count = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            for (long field : STRING_FIELDS) {
+                long ref = records.segment.get(JAVA_LONG, baseOf(slot) + field);
+                if (ref != NULL_REF) refs[count++] = ref;
+            }
+        }
+        // a reference starts with its offset, so sorting the references orders the strings by address
+        Arrays.sort(refs, 0, count);
+        long[] moved = new long[count];
+        long used = 0;
+        for (int i = 0; i < count; i++) {
+            long offset = refs[i] >>> 24;
+            int length = lengthOf(refs[i]);
+            // never moves a string up, so no live string is overwritten before its turn
+            if (offset != used) {
+                MemorySegment.copy(strings.segment, HEADER_SIZE + offset, strings.segment, HEADER_SIZE + used, length);
+            }
+            moved[i] = (used << 24) | length;
+            used += length;
+        }
+        for (int slot = 0; slot < slots; slot++) {
+            for (long field : STRING_FIELDS) {
+                long ref = records.segment.get(JAVA_LONG, baseOf(slot) + field);
+                if (ref == NULL_REF) continue;
+                records.segment.set(JAVA_LONG, baseOf(slot) + field, moved[Arrays.binarySearch(refs, 0, count, ref)]);
+            }
+        }
+        strings.setUsed(used);
+        liveStringBytes = used;
+    }
+
+    private static long baseOf(int slot) {
+        return HEADER_SIZE + slot * RECORD.byteSize();
+    }
+
+    private static int lengthOf(long ref) {
+        return ref == NULL_REF ? 0 : (int) (ref & MAX_STRING_BYTES);
+    }
+
+    private static long offsetOf(String field) {
+        return RECORD.byteOffset(PathElement.groupElement(field));
+    }
+
+    private static byte ordinalOf(Enum<?> value) {
+        return value == null ? NULL_ORDINAL : (byte) value.ordinal();
+    }
+
+    private static <E extends Enum<E>> E valueOf(E[] values, byte ordinal) {
+        return ordinal == NULL_ORDINAL ? null : values[ordinal];
+    }
+
+    /**
+     * Growable segment with a {magic, used, state} header, either anonymous or mapped from a file.
+     * Retired segments are released by the GC through their automatic arena.
+     */
+    private static final class Region {
+        private final FileChannel channel;
+        private MemorySegment segment;
+
+        Region(Path file, long initialSize) {
+            try {
+                if (file == null) {
+                    this.channel = null;
+                    this.segment = Arena.ofAuto().allocate(initialSize, 8);
+                } else {
+                    this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                            StandardOpenOption.READ, StandardOpenOption.WRITE);
+                    this.segment = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                            Math.max(initialSize, channel.size()), Arena.ofAuto());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось отобразить файл хранилища " + file, e);
+            }
+            if (segment.get(JAVA_LONG, 0) != MAGIC) {
+                segment.set(JAVA_LONG, 0, MAGIC);
+                setUsed(0);
+                setState(DIRTY);
+            }
+        }
+
+        boolean isClean() {
+            return segment.get(JAVA_LONG, 16) == CLEAN;
+        }
+
+        void setState(long state) {
+            segment.set(JAVA_LONG, 16, state);
+        }
+
+        /**
+         * Writes the mapped pages back to the file; anonymous memory has nothing to force.
+         */
+        void force() {
+            if (channel != null) segment.force();
+        }
+
+        long used() {
+            return segment.get(JAVA_LONG, 8);
+        }
+
+        void setUsed(long used) {
+            segment.set(JAVA_LONG, 8, used);
+        }
+
+        void ensureCapacity(long bytes) {
+            if (bytes <= segment.byteSize()) return;
+            long size = segment.byteSize();
+            while (size < bytes) size *= 2;
+            if (channel == null) {
+                MemorySegment grown = Arena.ofAuto().allocate(size, 8);
+                MemorySegment.copy(segment, 0, grown, 0, segment.byteSize());
+                segment = grown;
+            } else {
+                try {
+                    segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, Arena.ofAuto());
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Не удалось расширить файл хранилища", e);
+                }
+            }
+        }
+    }
+}
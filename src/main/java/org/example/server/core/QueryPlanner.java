@@ -0,0 +1,80 @@
+package org.example.server.core;
+
+import org.example.common.models.StudyGroup;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Chooses how to evaluate a {@link StudyGroupQuery}: look up the most selective indexed condition
+ * and check the rest on its candidates only. When no index narrows
+ * the search enough, the conditions with a column mirror are run as scan kernels over the columns,
+ * and only without any of those the whole cache is scanned object by object.
+ */
+public class QueryPlanner {
+    /**
+     * An index lookup pays for itself when its best condition keeps at most this share of the collection.
+     */
+    static final double MAX_INDEX_SELECTIVITY = 0.3;
+
+    private static final Logger logger = Logger.getLogger(QueryPlanner.class.getName());
+
+    private final CollectionManager collectionManager;
+
+    public QueryPlanner(CollectionManager collectionManager) {
+        this.collectionManager = collectionManager;
+    }
+
+    public record Result(List<StudyGroup> rows, String plan) {
+    }
+
+    private record Estimated(StudyGroupQuery.Condition condition, int rows) {
+    }
+
+    private record Candidates(RoaringBitmap ids, String plan) {
+    }
+
+    public Result execute(StudyGroupQuery query) {
+        Candidates candidates = collectionManager.withIndexes(indexes -> {
+            Candidates indexed = plan(query, indexes);
+            return indexed != null ? indexed : columnScan(query, indexes.columns());
+        });
+        List<StudyGroup> rows = candidates == null
+                ? collectionManager.scan(query::test)
+                : collectionManager.getByIds(candidates.ids()).stream().filter(query::test).toList();
+        String plan = candidates == null ? "полный просмотр" : candidates.plan();
+        logger.fine("Query [" + query + "] -> " + plan + ", " + rows.size() + " rows");
+        return new Result(rows, plan);
+    }
+
+    /**
+     * Evaluates the conditions that have a column mirror with the scan kernels.
+     * @return the candidate ids, or null if no condition has a column
+     */
+    private Candidates columnScan(StudyGroupQuery query, ScanColumns columns) {
+        long[] mask = ScanKernels.allRows(columns.rows());
+        StringBuilder plan = new StringBuilder();
+        for (StudyGroupQuery.Condition condition : query.conditions()) {
+            if (condition.narrow(columns, mask)) plan.append(plan.isEmpty() ? "просмотр колонок " : " AND ").append(condition);
+        }
+        if (plan.isEmpty()) return null;
+        return new Candidates(ScanKernels.select(columns.ids(), mask), plan.toString());
+    }
+
+    /**
+     * Looks up the most selective indexed condition only. Every other condition, indexed or not, is checked
+     * on its candidates, so a wide range never builds a bitmap of most of the collection just to be intersected away.
+     * @return the candidate ids, or null if no index is selective enough
+     */
+    private Candidates plan(StudyGroupQuery query, CollectionIndexes indexes) {
+        Estimated best = null;
+        for (StudyGroupQuery.Condition condition : query.conditions()) {
+            int rows = condition.estimate(indexes);
+            if (rows >= 0 && (best == null || rows < best.rows())) best = new Estimated(condition, rows);
+        }
+        if (best == null || best.rows() > indexes.size() * MAX_INDEX_SELECTIVITY) return null;
+        String plan = "индекс " + best.condition();
+        if (query.conditions().size() > 1) plan += ", остальные условия проверяются на кандидатах";
+        return new Candidates(best.condition().lookup(indexes).copy(), plan);
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.server.core;
+
+import org.example.common.models.StudyGroup;
+
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Sorted index of one long attribute: value -> bitmap of the ids holding it.
+ * Range queries walk only the values inside the range. Groups without a value are not indexed.
+ * Not thread-safe.
+ */
+public class RangeIndex {
+    private final Function<StudyGroup, Long> attribute;
+    private final TreeMap<Long, RoaringBitmap> bitmaps = new TreeMap<>();
+
+    public RangeIndex(Function<StudyGroup, Long> attribute) {
+        this.attribute = attribute;
+    }
+
+    public void add(StudyGroup studyGroup) {
+        Long value = attribute.apply(studyGroup);
+        if (value == null) return;
+        bitmaps.computeIfAbsent(value, key -> new RoaringBitmap()).add(studyGroup.getId());
+    }
+
+    public void remove(StudyGroup studyGroup) {
+        Long value = attribute.apply(studyGroup);
+        if (value == null) return;
+        RoaringBitmap bitmap = bitmaps.get(value);
+        if (bitmap == null) return;
+        bitmap.remove(studyGroup.getId());
+        if (bitmap.isEmpty()) bitmaps.remove(value);
+    }
+
+    /**
+     * @return the number of ids with {@code min <= value <= max}
+     */
+    public int count(long min, long max) {
+        if (min > max) return 0;
+        int count = 0;
+        for (RoaringBitmap bitmap : bitmaps.subMap(min, true, max, true).values()) {
+            count += bitmap.cardinality();
+        }
+        return count;
+    }
+
+    /**
+     * @return a fresh bitmap of the ids with {@code min <= value <= max}
+     */
+    public RoaringBitmap range(long min, long max) {
+        RoaringBitmap result = new RoaringBitmap();
+        if (min > max) return result;
+        for (RoaringBitmap bitmap : bitmaps.subMap(min, true, max, true).values()) {
+            result.orInPlace(bitmap);
+        }
+        return result;
+    }
+
+    /**
+     * @return the values in ascending or descending order with their live bitmaps, which must not be modified
+     */
+    public NavigableMap<Long, RoaringBitmap> ordered(boolean descending) {
+        return descending ? bitmaps.descendingMap() : bitmaps;
+    }
+
+    public void clear() {
+        bitmaps.clear();
+    }
+}
@@ -0,0 +1,153 @@
+package org.example.server.core;
+
+import org.example.server.commands.CommandClass;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs requests on a fixed set of workers, with one bounded lane per {@link CommandClass}.
+ * A free worker takes the oldest task of the highest-priority lane that is below its concurrency limit,
+ * so a burst of heavy reads can neither queue ahead of pings and writes nor occupy every worker.
+ */
+public class RequestScheduler {
+    private static final Logger logger = Logger.getLogger(RequestScheduler.class.getName());
+
+    /**
+     * @param priority    higher lanes are served first
+     * @param concurrency the most tasks of the lane running at once
+     * @param capacity    the most tasks waiting in the lane; further ones are rejected
+     */
+    public record LaneConfig(int priority, int concurrency, int capacity) {
+        public LaneConfig {
+            if (concurrency <= 0 || capacity <= 0) throw new IllegalArgumentException("lane limits must be positive");
+        }
+
+        /**
+         * @param spec "priority,concurrency,capacity"
+         */
+        public static LaneConfig parse(String spec) {
+            String[] parts = spec.split(",");
+            if (parts.length != 3) throw new IllegalArgumentException("expected priority,concurrency,capacity: " + spec);
+            return new LaneConfig(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()),
+                    Integer.parseInt(parts[2].trim()));
+        }
+    }
+
+    private record Task(Runnable work, long enqueuedAt) {
+    }
+
+    private static final class Lane {
+        final CommandClass commandClass;
+        final LaneConfig config;
+        final ArrayDeque<Task> queue = new ArrayDeque<>();
+        int running;
+
+        Lane(CommandClass commandClass, LaneConfig config) {
+            this.commandClass = commandClass;
+            this.config = config;
+        }
+
+        boolean canStart() {
+            return !queue.isEmpty() && running < config.concurrency();
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition ready = lock.newCondition();
+    private final Map<CommandClass, Lane> lanes = new EnumMap<>(CommandClass.class);
+    /**
+     * The same lanes, highest priority first.
+     */
+    private final List<Lane> byPriority;
+
+    public RequestScheduler(int workers, Map<CommandClass, LaneConfig> configs) {
+        for (CommandClass commandClass : CommandClass.values()) {
+            LaneConfig config = configs.get(commandClass);
+            if (config == null) throw new IllegalArgumentException("no lane for " + commandClass);
+            lanes.put(commandClass, new Lane(commandClass, config));
+        }
+        byPriority = new ArrayList<>(lanes.values());
+        byPriority.sort(Comparator.comparingInt((Lane lane) -> lane.config.priority()).reversed());
+        for (int i = 0; i < workers; i++) {
+            Thread worker = new Thread(this::work, "request-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * @return false if the lane is full and the task was rejected
+     */
+    public boolean submit(CommandClass commandClass, Runnable work) {
+        Lane lane = lanes.get(commandClass);
+        lock.lock();
+        try {
+            if (lane.queue.size() >= lane.config.capacity()) {
+                ServerMetrics.getInstance().recordRejected(commandClass);
+                return false;
+            }
+            lane.queue.addLast(new Task(work, System.nanoTime()));
+            ready.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued(CommandClass commandClass) {
+        lock.lock();
+        try {
+            return lanes.get(commandClass).queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Lane lane;
+            Task task;
+            lock.lock();
+            try {
+                while ((lane = next()) == null) ready.await();
+                task = lane.queue.removeFirst();
+                lane.running++;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            ServerMetrics.getInstance().recordQueueTime(lane.commandClass, System.nanoTime() - task.enqueuedAt());
+            try {
+                task.work().run();
+            } catch (Throwable e) { // an Error must not take the worker down with it
+                logger.log(Level.SEVERE, "Request failed in lane " + lane.commandClass + ": " + e, e);
+            } finally {
+                lock.lock();
+                try {
+                    lane.running--;
+                    ready.signalAll(); // a lane held back by its limit may start again
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private Lane next() {
+        for (Lane lane : byPriority) {
+            if (lane.canStart()) return lane;
+        }
+        return null;
+    }
+}
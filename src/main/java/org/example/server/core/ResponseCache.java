@@ -0,0 +1,86 @@
+package org.example.server.core;
+
+import org.example.common.network.Request;
+import org.example.common.network.Response;
+import org.example.common.network.StatusCode;
+import org.example.server.network.ResponseEncoder;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Responses of cacheable commands, already serialized, keyed by command, arguments and collection version.
+ * A mutation bumps the version, so older entries can never be hit again; they are dropped
+ * as soon as a request for a newer version comes in.
+ */
+public class ResponseCache {
+    private static final Logger logger = Logger.getLogger(ResponseCache.class.getName());
+
+    public record Key(String command, String args, long version) {
+    }
+
+    private final Map<Key, Response> entries = new ConcurrentHashMap<>();
+    private final LongSupplier version;
+    private final int capacity;
+    private volatile long latestVersion = -1;
+
+    /**
+     * @param version  the current collection version
+     * @param capacity the most responses kept for one version; past it, new responses are not cached
+     */
+    public ResponseCache(LongSupplier version, int capacity) {
+        this.version = version;
+        this.capacity = capacity;
+    }
+
+    public Key keyOf(Request request) {
+        return new Key(request.getCommandName(), request.getArgs() == null ? "" : request.getArgs().trim(), version.getAsLong());
+    }
+
+    /**
+     * @return the cached response with its encoded bytes, or null on a miss
+     */
+    public Response get(Key key) {
+        evictOlderThan(key.version());
+        Response cached = entries.get(key);
+        if (cached != null) {
+            ServerMetrics.getInstance().recordCacheHit();
+        } else {
+            ServerMetrics.getInstance().recordCacheMiss();
+        }
+        return cached;
+    }
+
+    /**
+     * Encodes a successful response, so that whoever shares it sends the same bytes, and stores it
+     * unless the collection changed while it was being built.
+     */
+    public void put(Key key, Response response) {
+        if (response.getStatus() != StatusCode.OK) return;
+        try {
+            if (response.getEncoded() == null) response.setEncoded(ResponseEncoder.serialize(response));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Response of " + key.command() + " is not cached: " + e.getMessage());
+            return;
+        }
+        if (entries.size() >= capacity || version.getAsLong() != key.version()) return;
+        entries.putIfAbsent(key, response);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictOlderThan(long current) {
+        if (current <= latestVersion) return;
+        synchronized (this) {
+            if (current <= latestVersion) return;
+            latestVersion = current;
+            entries.keySet().removeIf(key -> key.version() < current);
+        }
+    }
+}
@@ -0,0 +1,479 @@
+package org.example.server.core;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed bitmap of non-negative ints in the Roaring layout.
+ * Values are split by their high 16 bits into chunks; a sparse chunk is a sorted char array,
+ * a dense one (more than {@value #ARRAY_LIMIT} values) a 65536-bit bitmap.
+ * Not thread-safe.
+ */
+public class RoaringBitmap {
+    static final int ARRAY_LIMIT = 4096;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    public boolean add(int value) {
+        char high = (char) (value >>> 16);
+        int i = indexOf(high);
+        if (i < 0) {
+            i = -i - 1;
+            insertAt(i, high, new ArrayContainer());
+        }
+        int before = containers[i].cardinality();
+        containers[i] = containers[i].add((char) value);
+        return containers[i].cardinality() != before;
+    }
+
+    public boolean remove(int value) {
+        int i = indexOf((char) (value >>> 16));
+        if (i < 0) return false;
+        int before = containers[i].cardinality();
+        containers[i] = containers[i].remove((char) value);
+        boolean removed = containers[i].cardinality() != before;
+        if (containers[i].cardinality() == 0) removeAt(i);
+        return removed;
+    }
+
+    public boolean contains(int value) {
+        int i = indexOf((char) (value >>> 16));
+        return i >= 0 && containers[i].contains((char) value);
+    }
+
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < size; i++) total += containers[i].cardinality();
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the smallest value, or -1 if the bitmap is empty
+     */
+    public int first() {
+        if (size == 0) return -1;
+        return (keys[0] << 16) | containers[0].first();
+    }
+
+    /**
+     * Visits the values in ascending order.
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * @return up to {@code limit} values greater than {@code value}, in ascending order
+     */
+    public int[] after(int value, int limit) {
+        int[] result = new int[Math.min(limit, cardinality())];
+        if (value == Integer.MAX_VALUE || result.length == 0) return new int[0];
+        int start = Math.max(0, value + 1);
+        int i = indexOf((char) (start >>> 16));
+        char from = (char) start;
+        if (i < 0) {
+            i = -i - 1;
+            from = 0;
+        }
+        int count = 0;
+        for (; i < size && count < result.length; i++, from = 0) {
+            count = containers[i].collect(keys[i] << 16, from, result, count);
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    public int[] toArray() {
+        int[] result = new int[cardinality()];
+        int[] position = {0};
+        forEach(value -> result[position[0]++] = value);
+        return result;
+    }
+
+    public RoaringBitmap copy() {
+        RoaringBitmap result = new RoaringBitmap();
+        result.keys = Arrays.copyOf(keys, Math.max(4, size));
+        result.containers = new Container[result.keys.length];
+        for (int i = 0; i < size; i++) result.containers[i] = containers[i].copy();
+        result.size = size;
+        return result;
+    }
+
+    public void clear() {
+        keys = new char[4];
+        containers = new Container[4];
+        size = 0;
+    }
+
+    public static RoaringBitmap and(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0, j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) i++;
+            else if (a.keys[i] > b.keys[j]) j++;
+            else {
+                Container c = a.containers[i].and(b.containers[j]);
+                if (c.cardinality() > 0) result.insertAt(result.size, a.keys[i], c);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public static RoaringBitmap or(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0, j = 0;
+        while (i < a.size || j < b.size) {
+            if (j >= b.size || (i < a.size && a.keys[i] < b.keys[j])) {
+                result.insertAt(result.size, a.keys[i], a.containers[i].copy());
+                i++;
+            } else if (i >= a.size || a.keys[i] > b.keys[j]) {
+                result.insertAt(result.size, b.keys[j], b.containers[j].copy());
+                j++;
+            } else {
+                result.insertAt(result.size, a.keys[i], a.containers[i].or(b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds every value of {@code other} to this bitmap, reusing its containers instead of copying them,
+     * so folding many bitmaps into one stays linear in their total size.
+     */
+    public void orInPlace(RoaringBitmap other) {
+        for (int j = 0; j < other.size; j++) {
+            int i = indexOf(other.keys[j]);
+            if (i < 0) insertAt(-i - 1, other.keys[j], other.containers[j].copy());
+            else containers[i] = containers[i].orInPlace(other.containers[j]);
+        }
+    }
+
+    private int indexOf(char high) {
+        return Arrays.binarySearch(keys, 0, size, high);
+    }
+
+    private void insertAt(int i, char high, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = high;
+        containers[i] = container;
+        size++;
+    }
+
+    private void removeAt(int i) {
+        System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+        System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+        containers[--size] = null;
+    }
+
+    /**
+     * Set of the low 16 bits of values sharing one high half. Mutators return the container to keep,
+     * which changes representation when the cardinality crosses {@link #ARRAY_LIMIT}.
+     */
+    private abstract static class Container {
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        abstract char first();
+
+        abstract void forEach(int high, IntConsumer action);
+
+        /**
+         * Appends the values from {@code from} on to {@code out} at {@code count} until it is full.
+         * @return the new count
+         */
+        abstract int collect(int high, char from, int[] out, int count);
+
+        abstract Container and(Container other);
+
+        abstract Container or(Container other);
+
+        /**
+         * Like {@link #or} but may modify and return this container.
+         */
+        abstract Container orInPlace(Container other);
+
+        abstract Container copy();
+    }
+
+    private static final class ArrayContainer extends Container {
+        /**
+         * Up to this many values are inserted one by one rather than merged into a new array.
+         */
+        private static final int SMALL_MERGE = 64;
+
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) return this;
+            if (cardinality >= ARRAY_LIMIT) return toBitmap().add(value);
+            i = -i - 1;
+            if (cardinality == values.length) values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, cardinality * 2));
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i < 0) return this;
+            System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+            cardinality--;
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        char first() {
+            return values[0];
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < cardinality; i++) action.accept(high | values[i]);
+        }
+
+        @Override
+        int collect(int high, char from, int[] out, int count) {
+            int i = Arrays.binarySearch(values, 0, cardinality, from);
+            if (i < 0) i = -i - 1;
+            for (; i < cardinality && count < out.length; i++) out[count++] = high | values[i];
+            return count;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[cardinality];
+            int count = 0;
+            if (other instanceof ArrayContainer array) {
+                int i = 0, j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    if (values[i] < array.values[j]) i++;
+                    else if (values[i] > array.values[j]) j++;
+                    else {
+                        result[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) result[count++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) return other.or(this);
+            ArrayContainer array = (ArrayContainer) other;
+            char[] result = new char[cardinality + array.cardinality];
+            int i = 0, j = 0, count = 0;
+            while (i < cardinality || j < array.cardinality) {
+                if (j >= array.cardinality || (i < cardinality && values[i] < array.values[j])) result[count++] = values[i++];
+                else if (i >= cardinality || values[i] > array.values[j]) result[count++] = array.values[j++];
+                else {
+                    result[count++] = values[i++];
+                    j++;
+                }
+            }
+            ArrayContainer merged = new ArrayContainer(result, count);
+            return count > ARRAY_LIMIT ? merged.toBitmap() : merged;
+        }
+
+        @Override
+        Container orInPlace(Container other) {
+            if (other instanceof BitmapContainer) return other.copy().orInPlace(this);
+            ArrayContainer array = (ArrayContainer) other;
+            if (array.cardinality > SMALL_MERGE) return or(array);
+            Container result = this;
+            for (int i = 0; i < array.cardinality; i++) result = result.add(array.values[i]);
+            return result;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(4, cardinality)), cardinality);
+        }
+
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) bitmap.add(values[i]);
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer() {
+            this(new long[1024], 0);
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            long before = words[value >>> 6];
+            words[value >>> 6] = before | (1L << value);
+            if (before != words[value >>> 6]) cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long before = words[value >>> 6];
+            words[value >>> 6] = before & ~(1L << value);
+            if (before != words[value >>> 6]) cardinality--;
+            return cardinality <= ARRAY_LIMIT ? toArray() : this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        char first() {
+            for (int w = 0; w < words.length; w++) {
+                if (words[w] != 0) return (char) (w * 64 + Long.numberOfTrailingZeros(words[w]));
+            }
+            throw new IllegalStateException("empty container");
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int w = 0; w < words.length; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    action.accept(high | (w * 64 + Long.numberOfTrailingZeros(word)));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        int collect(int high, char from, int[] out, int count) {
+            for (int w = from >>> 6; w < words.length && count < out.length; w++) {
+                long word = w == from >>> 6 ? words[w] & (-1L << from) : words[w];
+                while (word != 0 && count < out.length) {
+                    out[count++] = high | (w * 64 + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) return other.and(this);
+            long[] otherWords = ((BitmapContainer) other).words;
+            long[] result = new long[1024];
+            int count = 0;
+            for (int w = 0; w < 1024; w++) {
+                result[w] = words[w] & otherWords[w];
+                count += Long.bitCount(result[w]);
+            }
+            BitmapContainer bitmap = new BitmapContainer(result, count);
+            return count <= ARRAY_LIMIT ? bitmap.toArray() : bitmap;
+        }
+
+        @Override
+        Container or(Container other) {
+            BitmapContainer result = (BitmapContainer) copy();
+            if (other instanceof ArrayContainer array) {
+                for (int i = 0; i < array.cardinality; i++) result.add(array.values[i]);
+                return result;
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            int count = 0;
+            for (int w = 0; w < 1024; w++) {
+                result.words[w] |= otherWords[w];
+                count += Long.bitCount(result.words[w]);
+            }
+            result.cardinality = count;
+            return result;
+        }
+
+        @Override
+        Container orInPlace(Container other) {
+            if (other instanceof ArrayContainer array) {
+                for (int i = 0; i < array.cardinality; i++) add(array.values[i]);
+                return this;
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            int count = 0;
+            for (int w = 0; w < 1024; w++) {
+                words[w] |= otherWords[w];
+                count += Long.bitCount(words[w]);
+            }
+            cardinality = count;
+            return this;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        ArrayContainer toArray() {
+            char[] values = new char[Math.max(4, cardinality)];
+            int[] count = {0};
+            forEach(0, value -> values[count[0]++] = (char) value);
+            return new ArrayContainer(values, count[0]);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.server.core;
+
+import org.example.common.models.StudyGroup;
+
+import java.util.Arrays;
+
+/**
+ * Primitive mirrors of the fields that bulk predicates test, one dense row per element:
+ * ids, studentsCount, shouldBeExpelled, form of education, semester and owner (as a dictionary code).
+ * Scans over them run the {@link ScanKernels} instead of walking StudyGroup objects.
+ * Removal moves the last row into the hole. Not thread-safe.
+ */
+class ScanColumns {
+    /**
+     * shouldBeExpelled of a group that has none; positive values are the only valid ones.
+     */
+    static final long NULL_EXPELLED = Long.MIN_VALUE;
+    static final byte NULL_ORDINAL = -1;
+
+    private final IdRowIndex rowsById = new IdRowIndex();
+    private final StringDictionary owners = new StringDictionary();
+    private int rows;
+    private int[] ids = new int[16];
+    private long[] studentsCounts = new long[16];
+    private long[] expelled = new long[16];
+    private byte[] forms = new byte[16];
+    private byte[] semesters = new byte[16];
+    private int[] ownerCodes = new int[16];
+
+    void add(StudyGroup studyGroup) {
+        int row = rowsById.get(studyGroup.getId());
+        if (row >= 0) {
+            owners.release(ownerCodes[row]);
+        } else {
+            if (rows == ids.length) grow(rows * 2);
+            row = rows++;
+            rowsById.put(studyGroup.getId(), row);
+        }
+        ids[row] = studyGroup.getId();
+        studentsCounts[row] = studyGroup.getStudentsCount();
+        expelled[row] = studyGroup.getShouldBeExpelled() == null ? NULL_EXPELLED : studyGroup.getShouldBeExpelled();
+        forms[row] = ordinalOf(studyGroup.getFormOfEducation());
+        semesters[row] = ordinalOf(studyGroup.getSemesterEnum());
+        ownerCodes[row] = owners.acquire(CollectionManager.ownerOf(studyGroup));
+    }
+
+    void remove(StudyGroup studyGroup) {
+        int row = rowsById.remove(studyGroup.getId());
+        if (row < 0) return;
+        owners.release(ownerCodes[row]);
+        int last = --rows;
+        if (row != last) {
+            ids[row] = ids[last];
+            studentsCounts[row] = studentsCounts[last];
+            expelled[row] = expelled[last];
+            forms[row] = forms[last];
+            semesters[row] = semesters[last];
+            ownerCodes[row] = ownerCodes[last];
+            rowsById.put(ids[row], row);
+        }
+    }
+
+    void clear() {
+        rows = 0;
+        rowsById.clear();
+        owners.clear();
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    int[] ids() {
+        return ids;
+    }
+
+    long[] studentsCounts() {
+        return studentsCounts;
+    }
+
+    long[] expelled() {
+        return expelled;
+    }
+
+    byte[] forms() {
+        return forms;
+    }
+
+    byte[] semesters() {
+        return semesters;
+    }
+
+    int[] ownerCodes() {
+        return ownerCodes;
+    }
+
+    /**
+     * @return the code of the owner, or {@link StringDictionary#NULL_CODE} if no row belongs to it
+     */
+    int ownerCode(String owner) {
+        return owners.codeOf(owner);
+    }
+
+    static byte ordinalOf(Enum<?> value) {
+        return value == null ? NULL_ORDINAL : (byte) value.ordinal();
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        studentsCounts = Arrays.copyOf(studentsCounts, capacity);
+        expelled = Arrays.copyOf(expelled, capacity);
+        forms = Arrays.copyOf(forms, capacity);
+        semesters = Arrays.copyOf(semesters, capacity);
+        ownerCodes = Arrays.copyOf(ownerCodes, capacity);
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.server.core;
+
+import java.util.Arrays;
+
+/**
+ * Filter kernels over primitive columns. A predicate narrows a row mask in place: bit {@code i} of
+ * {@code mask[i >>> 6]} is set while row {@code i} still matches.
+ * <p>
+ * When the server runs with {@code --add-modules jdk.incubator.vector}, the bulk of every column goes
+ * through {@link VectorScanKernels}, one SIMD compare per vector of rows. Without the module, and for the
+ * tail that does not fill a vector, the same predicate runs as a scalar loop without data-dependent branches.
+ */
+final class ScanKernels {
+    /**
+     * Whether the Vector API module was added at startup. Checked once, before anything loads its classes.
+     */
+    static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private ScanKernels() {
+    }
+
+    static long[] allRows(int rows) {
+        long[] mask = new long[(rows + 63) >>> 6];
+        Arrays.fill(mask, -1L);
+        if ((rows & 63) != 0) mask[mask.length - 1] = (1L << rows) - 1;
+        return mask;
+    }
+
+    /**
+     * row matches while min &lt;= column[row] &lt;= max
+     */
+    static void between(long[] column, int rows, long min, long max, long[] mask) {
+        int row = VECTORIZED ? VectorScanKernels.between(column, rows, min, max, mask) : 0;
+        for (; row < rows; row++) {
+            long value = column[row];
+            keepIf(mask, row, value >= min & value <= max);
+        }
+    }
+
+    /**
+     * row matches while column[row] == value
+     */
+    static void equal(byte[] column, int rows, byte value, long[] mask) {
+        int row = VECTORIZED ? VectorScanKernels.equal(column, rows, value, mask) : 0;
+        for (; row < rows; row++) {
+            keepIf(mask, row, column[row] == value);
+        }
+    }
+
+    /**
+     * row matches while column[row] == value
+     */
+    static void equal(int[] column, int rows, int value, long[] mask) {
+        int row = VECTORIZED ? VectorScanKernels.equal(column, rows, value, mask) : 0;
+        for (; row < rows; row++) {
+            keepIf(mask, row, column[row] == value);
+        }
+    }
+
+    /**
+     * row matches while column[row] &lt; bound
+     */
+    static void less(int[] column, int rows, int bound, long[] mask) {
+        int row = VECTORIZED ? VectorScanKernels.less(column, rows, bound, mask) : 0;
+        for (; row < rows; row++) {
+            keepIf(mask, row, column[row] < bound);
+        }
+    }
+
+    /**
+     * Writes the ids of the matching rows to a bitmap, visiting only the set bits of the mask.
+     */
+    static RoaringBitmap select(int[] ids, long[] mask) {
+        RoaringBitmap result = new RoaringBitmap();
+        for (int word = 0; word < mask.length; word++) {
+            for (long bits = mask[word]; bits != 0; bits &= bits - 1) {
+                result.add(ids[(word << 6) + Long.numberOfTrailingZeros(bits)]);
+            }
+        }
+        return result;
+    }
+
+    private static void keepIf(long[] mask, int row, boolean matches) {
+        mask[row >>> 6] &= ~((matches ? 0L : 1L) << row);
+    }
+}
@@ -0,0 +1,255 @@
+package org.example.server.core;
+
+import org.example.server.commands.CommandClass;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide counters of the request pipeline, reported by the 'stats' command.
+ */
+public class ServerMetrics {
+    private static final ServerMetrics instance = new ServerMetrics();
+    /**
+     * HotSpot's per-thread allocation counter, or null if the JVM does not provide it.
+     */
+    private static final com.sun.management.ThreadMXBean threads = allocationCounter();
+
+    private final LongAdder responseCacheHits = new LongAdder();
+    private final LongAdder responseCacheMisses = new LongAdder();
+    private final LongAdder coalescedRequests = new LongAdder();
+    private final LongAdder droppedNotifications = new LongAdder();
+    /**
+     * Requests dropped because the client deadline passed, by the stage that noticed it.
+     */
+    private final Map<String, LongAdder> expired = new ConcurrentSkipListMap<>();
+    /**
+     * Datagrams dropped before a request was decoded from them, by the check that failed.
+     */
+    private final Map<String, LongAdder> rejectedDatagrams = new ConcurrentSkipListMap<>();
+    private final LongAccumulator maxOutboundDepth = new LongAccumulator(Math::max, 0);
+    private volatile int outboundDepth;
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder sendBatches = new LongAdder();
+    private final LongAdder sendLatencyNanos = new LongAdder();
+    private final LongAccumulator maxSendLatencyNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final Map<CommandClass, LaneStats> lanes = new EnumMap<>(CommandClass.class);
+
+    /**
+     * Time requests of one lane spent waiting for a worker.
+     */
+    private static final class LaneStats {
+        final LongAdder started = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder queueNanos = new LongAdder();
+        final LongAccumulator maxQueueNanos = new LongAccumulator(Math::max, 0);
+    }
+
+    private ServerMetrics() {
+        for (CommandClass commandClass : CommandClass.values()) lanes.put(commandClass, new LaneStats());
+    }
+
+    public static ServerMetrics getInstance() {
+        return instance;
+    }
+
+    public void recordCacheHit() {
+        responseCacheHits.increment();
+    }
+
+    public void recordCacheMiss() {
+        responseCacheMisses.increment();
+    }
+
+    /**
+     * Counts a request that waited for an equal one already in progress instead of executing.
+     */
+    public void recordCoalesced() {
+        coalescedRequests.increment();
+    }
+
+    public long getCoalescedRequests() {
+        return coalescedRequests.sum();
+    }
+
+    /**
+     * Counts a change event dropped because the subscription fan-out queue was full.
+     */
+    public void recordDroppedNotification() {
+        droppedNotifications.increment();
+    }
+
+    public long getDroppedNotifications() {
+        return droppedNotifications.sum();
+    }
+
+    public void recordExpired(String stage) {
+        expired.computeIfAbsent(stage, key -> new LongAdder()).increment();
+    }
+
+    public long getExpired() {
+        return total(expired);
+    }
+
+    public void recordRejectedDatagram(String reason) {
+        rejectedDatagrams.computeIfAbsent(reason, key -> new LongAdder()).increment();
+    }
+
+    public long getRejectedDatagrams() {
+        return total(rejectedDatagrams);
+    }
+
+    private static long total(Map<String, LongAdder> counters) {
+        return counters.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * @param depth responses waiting for the sender right after one was queued
+     */
+    public void recordOutboundDepth(int depth) {
+        outboundDepth = depth;
+        maxOutboundDepth.accumulate(depth);
+    }
+
+    public void recordSendBatch() {
+        sendBatches.increment();
+    }
+
+    /**
+     * @param nanos time from queueing a response to handing it to the channel
+     */
+    public void recordSendLatency(long nanos) {
+        sent.increment();
+        sendLatencyNanos.add(nanos);
+        maxSendLatencyNanos.accumulate(nanos);
+    }
+
+    /**
+     * Counts a request decoded from a datagram.
+     */
+    public void recordRequest() {
+        requests.increment();
+    }
+
+    /**
+     * Adds heap bytes allocated while receiving, executing or sending a request.
+     */
+    public void recordAllocated(long bytes) {
+        if (bytes > 0) allocatedBytes.add(bytes);
+    }
+
+    /**
+     * @return the mean heap bytes allocated per request across receive, execution and send
+     */
+    public long getAllocatedPerRequest() {
+        long count = requests.sum();
+        return count == 0 ? 0 : allocatedBytes.sum() / count;
+    }
+
+    /**
+     * @return heap bytes allocated by the current thread so far, or 0 if the JVM cannot tell
+     */
+    public static long currentThreadAllocatedBytes() {
+        return threads == null ? 0 : threads.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        }
+        return null;
+    }
+
+    public void recordQueueTime(CommandClass lane, long nanos) {
+        LaneStats stats = lanes.get(lane);
+        stats.started.increment();
+        stats.queueNanos.add(nanos);
+        stats.maxQueueNanos.accumulate(nanos);
+    }
+
+    public void recordRejected(CommandClass lane) {
+        lanes.get(lane).rejected.increment();
+    }
+
+    public long getRejected(CommandClass lane) {
+        return lanes.get(lane).rejected.sum();
+    }
+
+    /**
+     * @return the mean time requests of the lane waited for a worker, in milliseconds
+     */
+    public double getMeanQueueMillis(CommandClass lane) {
+        LaneStats stats = lanes.get(lane);
+        long started = stats.started.sum();
+        return started == 0 ? 0 : stats.queueNanos.sum() / (double) started / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public long getResponseCacheHits() {
+        return responseCacheHits.sum();
+    }
+
+    public long getResponseCacheMisses() {
+        return responseCacheMisses.sum();
+    }
+
+    /**
+     * @return the share of cacheable requests answered from the cache, 0 if there were none
+     */
+    public double getResponseCacheHitRatio() {
+        long hits = getResponseCacheHits();
+        long total = hits + getResponseCacheMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public String report() {
+        return "Кэш ответов: попаданий " + getResponseCacheHits() + ", промахов " + getResponseCacheMisses()
+                + String.format(", доля попаданий %.1f%%", getResponseCacheHitRatio() * 100) + "\n"
+                + "Объединено одинаковых запросов: " + getCoalescedRequests() + laneReport() + "\n"
+                + "Отброшено просроченных запросов: " + getExpired() + breakdown(expired) + "\n"
+                + "Отброшено датаграмм при разборе: " + getRejectedDatagrams() + breakdown(rejectedDatagrams) + "\n"
+                + "Отброшено уведомлений подписчикам (очередь переполнена): " + getDroppedNotifications() + "\n"
+                + senderReport() + "\n"
+                + "Выделено в куче на запрос (приём, исполнение, отправка): в среднем " + getAllocatedPerRequest() + " байт";
+    }
+
+    private String senderReport() {
+        long count = sent.sum();
+        long batches = sendBatches.sum();
+        double millis = TimeUnit.MILLISECONDS.toNanos(1);
+        return String.format("Отправка: ответов %d, пачек %d (в среднем %.1f), очередь %d (максимум %d), "
+                        + "задержка средняя %.2f мс, максимум %.2f мс",
+                count, batches, batches == 0 ? 0 : (double) count / batches, outboundDepth, maxOutboundDepth.get(),
+                count == 0 ? 0 : sendLatencyNanos.sum() / (double) count / millis, maxSendLatencyNanos.get() / millis);
+    }
+
+    /**
+     * @return " (key: count, ...)", or an empty string if nothing was counted
+     */
+    private static String breakdown(Map<String, LongAdder> counters) {
+        if (counters.isEmpty()) return "";
+        StringBuilder report = new StringBuilder(" (");
+        counters.forEach((stage, count) -> {
+            if (report.length() > 2) report.append(", ");
+            report.append(stage).append(": ").append(count.sum());
+        });
+        return report.append(')').toString();
+    }
+
+    private String laneReport() {
+        StringBuilder report = new StringBuilder();
+        lanes.forEach((lane, stats) -> report.append(String.format(
+                "\nОчередь %s: выполнено %d, отклонено %d, ожидание среднее %.2f мс, максимум %.2f мс",
+                lane, stats.started.sum(), stats.rejected.sum(), getMeanQueueMillis(lane),
+                stats.maxQueueNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1))));
+        return report.toString();
+    }
+}
@@ -0,0 +1,172 @@
+package org.example.server.core;
+
+import org.example.common.models.StudyGroup;
+
+import java.util.*;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Uniform grid over one x/y point of a StudyGroup. Each occupied square cell keeps the bitmap of
+ * the ids inside it, so a bounding box only visits the cells it overlaps and a nearest-neighbour
+ * search grows rings of cells around the query point until no closer point can be left.
+ * Not thread-safe.
+ */
+public class SpatialGridIndex {
+    public record Point(double x, double y) {
+        double distanceSquared(double px, double py) {
+            double dx = x - px, dy = y - py;
+            return dx * dx + dy * dy;
+        }
+    }
+
+    public record Neighbour(int id, double distance) {
+    }
+
+    private final ToDoubleFunction<StudyGroup> x;
+    private final ToDoubleFunction<StudyGroup> y;
+    private final double cellSize;
+    private final Map<Long, RoaringBitmap> cells = new HashMap<>();
+    private final Map<Integer, Point> points = new HashMap<>();
+
+    public SpatialGridIndex(ToDoubleFunction<StudyGroup> x, ToDoubleFunction<StudyGroup> y, double cellSize) {
+        if (!(cellSize > 0)) throw new IllegalArgumentException("cellSize must be positive");
+        this.x = x;
+        this.y = y;
+        this.cellSize = cellSize;
+    }
+
+    public void add(StudyGroup studyGroup) {
+        Point point = new Point(x.applyAsDouble(studyGroup), y.applyAsDouble(studyGroup));
+        Point previous = points.put(studyGroup.getId(), point);
+        if (previous != null) removeFromCell(studyGroup.getId(), previous);
+        cells.computeIfAbsent(cellKey(cell(point.x()), cell(point.y())), key -> new RoaringBitmap()).add(studyGroup.getId());
+    }
+
+    public void remove(StudyGroup studyGroup) {
+        Point point = points.remove(studyGroup.getId());
+        if (point != null) removeFromCell(studyGroup.getId(), point);
+    }
+
+    public void clear() {
+        cells.clear();
+        points.clear();
+    }
+
+    /**
+     * @return a fresh bitmap of the ids with {@code minX <= x <= maxX} and {@code minY <= y <= maxY}
+     * @throws IllegalArgumentException if a bound is NaN or infinite
+     */
+    public RoaringBitmap boundingBox(double minX, double minY, double maxX, double maxY) {
+        if (!Double.isFinite(minX) || !Double.isFinite(minY) || !Double.isFinite(maxX) || !Double.isFinite(maxY)) {
+            throw new IllegalArgumentException("bounding box must be finite");
+        }
+        RoaringBitmap result = new RoaringBitmap();
+        if (minX > maxX || minY > maxY) return result;
+        long fromX = cell(minX), toX = cell(maxX), fromY = cell(minY), toY = cell(maxY);
+        // cells are clamped to int range, so each side fits in a long and the product is taken in double
+        double boxCells = (double) (toX - fromX + 1) * (double) (toY - fromY + 1);
+        if (boxCells <= cells.size()) {
+            for (long cx = fromX; cx <= toX; cx++) {
+                for (long cy = fromY; cy <= toY; cy++) {
+                    collectInside(cells.get(cellKey(cx, cy)), minX, minY, maxX, maxY, result);
+                }
+            }
+        } else {
+            // a box wider than the occupied area: cheaper to visit the occupied cells
+            for (Map.Entry<Long, RoaringBitmap> entry : cells.entrySet()) {
+                long cx = entry.getKey() >> 32, cy = (int) (long) entry.getKey();
+                if (cx >= fromX && cx <= toX && cy >= fromY && cy <= toY) {
+                    collectInside(entry.getValue(), minX, minY, maxX, maxY, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return up to k ids closest to the point, nearest first
+     */
+    public List<Neighbour> nearest(double px, double py, int k) {
+        if (!Double.isFinite(px) || !Double.isFinite(py)) throw new IllegalArgumentException("point must be finite");
+        if (k <= 0 || points.isEmpty()) return List.of();
+        // max-heap on distance holding the best k seen so far
+        PriorityQueue<Neighbour> best = new PriorityQueue<>(Comparator.comparingDouble(Neighbour::distance).reversed());
+        long cx = cell(px), cy = cell(py);
+        int visited = 0;
+        for (long ring = 0; visited < points.size(); ring++) {
+            double ringCells = ring == 0 ? 1 : 8.0 * ring;
+            if (ringCells > cells.size()) {
+                // the rings have outgrown the occupied cells, finish with one pass over the rest
+                for (Map.Entry<Long, RoaringBitmap> entry : cells.entrySet()) {
+                    long ex = entry.getKey() >> 32, ey = (int) (long) entry.getKey();
+                    if (Math.max(Math.abs(ex - cx), Math.abs(ey - cy)) >= ring) offer(entry.getValue(), px, py, k, best);
+                }
+                break;
+            }
+            for (long d = -ring; d <= ring; d++) {
+                visited += offer(cx + d, cy - ring, px, py, k, best);
+                if (ring > 0) visited += offer(cx + d, cy + ring, px, py, k, best);
+                if (d != -ring && d != ring) {
+                    visited += offer(cx - ring, cy + d, px, py, k, best);
+                    visited += offer(cx + ring, cy + d, px, py, k, best);
+                }
+            }
+            // every point outside rings 0..ring is at least ring * cellSize away
+            if (best.size() == k && best.peek().distance() <= ring * cellSize) break;
+        }
+        List<Neighbour> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Neighbour::distance).thenComparingInt(Neighbour::id));
+        return result;
+    }
+
+    /**
+     * @return the number of points in the cell
+     */
+    private int offer(long cx, long cy, double px, double py, int k, PriorityQueue<Neighbour> best) {
+        RoaringBitmap ids = cells.get(cellKey(cx, cy));
+        if (ids == null) return 0;
+        offer(ids, px, py, k, best);
+        return ids.cardinality();
+    }
+
+    private void offer(RoaringBitmap ids, double px, double py, int k, PriorityQueue<Neighbour> best) {
+        ids.forEach(id -> {
+            double distance = Math.sqrt(points.get(id).distanceSquared(px, py));
+            if (best.size() < k) {
+                best.add(new Neighbour(id, distance));
+            } else if (distance < best.peek().distance()) {
+                best.poll();
+                best.add(new Neighbour(id, distance));
+            }
+        });
+    }
+
+    private void collectInside(RoaringBitmap ids, double minX, double minY, double maxX, double maxY, RoaringBitmap result) {
+        if (ids == null) return;
+        ids.forEach(id -> {
+            Point point = points.get(id);
+            if (point.x() >= minX && point.x() <= maxX && point.y() >= minY && point.y() <= maxY) result.add(id);
+        });
+    }
+
+    private void removeFromCell(int id, Point point) {
+        long key = cellKey(cell(point.x()), cell(point.y()));
+        RoaringBitmap ids = cells.get(key);
+        if (ids == null) return;
+        ids.remove(id);
+        if (ids.isEmpty()) cells.remove(key);
+    }
+
+    /**
+     * Clamped to int range: the key keeps 32 bits per axis, and far-out points simply share the edge cells,
+     * whose members are still filtered by their exact coordinates.
+     */
+    private long cell(double coordinate) {
+        double cell = Math.floor(coordinate / cellSize);
+        return (long) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, cell));
+    }
+
+    private static long cellKey(long cx, long cy) {
+        return (cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+}
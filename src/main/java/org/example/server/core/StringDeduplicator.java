@@ -0,0 +1,126 @@
+package org.example.server.core;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent weak intern table for repetitive strings (owner logins, admin and location names).
+ * Equal strings are replaced by one canonical instance; the table only holds weak references,
+ * so a string disappears from it once no element uses it any more.
+ */
+public class StringDeduplicator {
+    private static final StringDeduplicator instance = new StringDeduplicator();
+
+    private final ConcurrentHashMap<Object, WeakKey> table = new ConcurrentHashMap<>();
+    private final ReferenceQueue<String> queue = new ReferenceQueue<>();
+    private final LongAdder duplicatesReplaced = new LongAdder();
+    private final LongAdder deduplicatedBytes = new LongAdder();
+
+    public static StringDeduplicator getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return the canonical instance equal to the value, or the value itself if it is the first one seen
+     */
+    public String deduplicate(String value) {
+        if (value == null) return null;
+        expungeStaleEntries();
+        WeakKey existing = table.get(new Lookup(value));
+        String canonical = existing == null ? null : existing.get();
+        if (canonical != null) return replaced(value, canonical);
+
+        WeakKey fresh = new WeakKey(value, queue);
+        while (true) {
+            WeakKey previous = table.putIfAbsent(fresh, fresh);
+            if (previous == null) return value;
+            canonical = previous.get();
+            if (canonical != null) return replaced(value, canonical);
+            table.remove(previous, previous); // collected between lookup and insert
+        }
+    }
+
+    public int distinctStrings() {
+        return table.size();
+    }
+
+    /**
+     * @return duplicates replaced since start, cumulative like {@link #getEstimatedDeduplicatedBytes()}
+     */
+    public long getDuplicatesReplaced() {
+        return duplicatesReplaced.sum();
+    }
+
+    /**
+     * Estimate of the heap bytes of all the duplicate strings dropped in favour of a canonical instance since start.
+     * A running sum of {@link #estimateSize} that never goes down: it still counts canonical strings the GC has
+     * collected since, so it is not what the heap saves right now.
+     */
+    public long getEstimatedDeduplicatedBytes() {
+        return deduplicatedBytes.sum();
+    }
+
+    private String replaced(String duplicate, String canonical) {
+        if (duplicate != canonical) {
+            duplicatesReplaced.increment();
+            deduplicatedBytes.add(estimateSize(duplicate));
+        }
+        return canonical;
+    }
+
+    private void expungeStaleEntries() {
+        Reference<? extends String> stale;
+        while ((stale = queue.poll()) != null) {
+            table.remove(stale, stale);
+        }
+    }
+
+    /**
+     * String object (header, hash, coder, array reference) plus its backing byte[], compressed oops.
+     */
+    static long estimateSize(String value) {
+        boolean latin1 = value.chars().allMatch(c -> c < 256);
+        long arrayBytes = 16L + (long) value.length() * (latin1 ? 1 : 2);
+        return 24L + ((arrayBytes + 7) & ~7L);
+    }
+
+    private static final class WeakKey extends WeakReference<String> {
+        private final int hash;
+
+        WeakKey(String value, ReferenceQueue<String> queue) {
+            super(value, queue);
+            this.hash = value.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            String value = get();
+            if (value == null) return false;
+            if (o instanceof WeakKey other) return value.equals(other.get());
+            if (o instanceof Lookup lookup) return value.equals(lookup.value);
+            return false;
+        }
+    }
+
+    private record Lookup(String value) {
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o instanceof WeakKey key) return value.equals(key.get());
+            return o instanceof Lookup other && value.equals(other.value);
+        }
+    }
+}
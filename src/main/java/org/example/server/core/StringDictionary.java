@@ -0,0 +1,73 @@
+package org.example.server.core;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reference-counted dictionary encoding of strings to dense int codes.
+ * A code is recycled once every row holding it has been released. Not thread-safe.
+ */
+class StringDictionary {
+    static final int NULL_CODE = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] strings = new String[16];
+    private int[] refCounts = new int[16];
+    private final ArrayDeque<Integer> freeCodes = new ArrayDeque<>();
+    private int nextCode;
+
+    /**
+     * Returns the code of the string and takes one reference on it.
+     */
+    int acquire(String value) {
+        if (value == null) return NULL_CODE;
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = freeCodes.isEmpty() ? nextCode++ : freeCodes.pop();
+            if (code >= strings.length) {
+                strings = Arrays.copyOf(strings, strings.length * 2);
+                refCounts = Arrays.copyOf(refCounts, refCounts.length * 2);
+            }
+            strings[code] = value;
+            codes.put(value, code);
+        }
+        refCounts[code]++;
+        return code;
+    }
+
+    void release(int code) {
+        if (code == NULL_CODE) return;
+        if (--refCounts[code] == 0) {
+            codes.remove(strings[code]);
+            strings[code] = null;
+            freeCodes.push(code);
+        }
+    }
+
+    /**
+     * Looks the code up without taking a reference.
+     * @return the code of the string, or {@link #NULL_CODE} if it is not in the dictionary
+     */
+    int codeOf(String value) {
+        Integer code = value == null ? null : codes.get(value);
+        return code == null ? NULL_CODE : code;
+    }
+
+    String decode(int code) {
+        return code == NULL_CODE ? null : strings[code];
+    }
+
+    int size() {
+        return codes.size();
+    }
+
+    void clear() {
+        codes.clear();
+        freeCodes.clear();
+        Arrays.fill(strings, null);
+        Arrays.fill(refCounts, 0);
+        nextCode = 0;
+    }
+}
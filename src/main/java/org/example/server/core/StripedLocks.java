@@ -0,0 +1,36 @@
+package org.example.server.core;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed pool of reentrant locks selected by key hash.
+ * Unrelated keys almost never share a stripe, so their owners can work in parallel
+ * while operations on the same key stay serialized.
+ */
+public class StripedLocks {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    /**
+     * @param stripeCount number of stripes, rounded up to a power of two
+     */
+    public StripedLocks(int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public Lock forKey(Object key) {
+        return stripes[indexOf(key == null ? 0 : key.hashCode())];
+    }
+
+    private int indexOf(int hash) {
+        hash ^= (hash >>> 16);
+        hash *= 0x9E3779B1;
+        return (hash ^ (hash >>> 15)) & mask;
+    }
+}
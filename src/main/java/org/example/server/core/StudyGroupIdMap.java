@@ -0,0 +1,153 @@
+package org.example.server.core;
+
+import org.example.common.models.StudyGroup;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Open-addressing map from positive {@code int} ids to {@link StudyGroup}s.
+ * Keys live in a plain {@code int[]} next to a parallel value array, so there is no boxing
+ * and no per-entry node.
+ * <p>
+ * Writers are serialized on the map monitor, readers never lock. Once a slot is claimed by
+ * an id it keeps that id until the next resize (removal only clears the value), so a reader
+ * that matched the key can trust the value it loads. Resizes build a fresh table and publish
+ * it through a volatile write, which also drops the cleared slots.
+ */
+public class StudyGroupIdMap implements StudyGroupStore {
+    private static final int EMPTY = 0;
+    private static final int MIN_CAPACITY = 16;
+    private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(StudyGroup[].class);
+
+    private static final class Table {
+        final int[] keys;
+        final StudyGroup[] values;
+        final int mask;
+        /** Slots with a key, including the ones whose value was removed. */
+        int claimed;
+
+        Table(int capacity) {
+            this.keys = new int[capacity];
+            this.values = new StudyGroup[capacity];
+            this.mask = capacity - 1;
+        }
+    }
+
+    private volatile Table table = new Table(MIN_CAPACITY);
+    private volatile int size;
+
+    @Override
+    public StudyGroup get(int id) {
+        if (id <= 0) return null;
+        Table t = table;
+        int i = slotOf(id, t.mask);
+        while (true) {
+            int key = (int) KEYS.getAcquire(t.keys, i);
+            if (key == id) return (StudyGroup) VALUES.getAcquire(t.values, i);
+            if (key == EMPTY) return null;
+            i = (i + 1) & t.mask;
+        }
+    }
+
+    @Override
+    public boolean containsKey(int id) {
+        return get(id) != null;
+    }
+
+    @Override
+    public synchronized void put(int id, StudyGroup studyGroup) {
+        if (id <= 0) throw new IllegalArgumentException("StudyGroup id must be > 0. Received: " + id);
+        if (studyGroup == null) throw new IllegalArgumentException("StudyGroup cannot be null.");
+        Table t = table;
+        int i = slotOf(id, t.mask);
+        while (true) {
+            int key = t.keys[i];
+            if (key == id) {
+                if (t.values[i] == null) size++;
+                VALUES.setRelease(t.values, i, studyGroup);
+                return;
+            }
+            if (key == EMPTY) break;
+            i = (i + 1) & t.mask;
+        }
+        // value first, so a reader that sees the key also sees the value
+        t.values[i] = studyGroup;
+        KEYS.setRelease(t.keys, i, id);
+        t.claimed++;
+        size++;
+        if (t.claimed * 2 > t.keys.length) rehash(t);
+    }
+
+    @Override
+    public synchronized boolean remove(int id) {
+        if (id <= 0) return false;
+        Table t = table;
+        int i = slotOf(id, t.mask);
+        while (true) {
+            int key = t.keys[i];
+            if (key == id) {
+                if (t.values[i] == null) return false;
+                VALUES.setRelease(t.values, i, null);
+                size--;
+                return true;
+            }
+            if (key == EMPTY) return false;
+            i = (i + 1) & t.mask;
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        table = new Table(MIN_CAPACITY);
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Weakly consistent snapshot of the values, in slot order.
+     */
+    @Override
+    public List<StudyGroup> values() {
+        Table t = table;
+        List<StudyGroup> result = new ArrayList<>(size);
+        for (int i = 0; i < t.values.length; i++) {
+            StudyGroup value = (StudyGroup) VALUES.getAcquire(t.values, i);
+            if (value != null) result.add(value);
+        }
+        return result;
+    }
+
+    private void rehash(Table old) {
+        int capacity = MIN_CAPACITY;
+        while (capacity <= size * 2) capacity <<= 1;
+        Table fresh = new Table(capacity);
+        for (int i = 0; i < old.keys.length; i++) {
+            StudyGroup value = old.values[i];
+            if (value == null) continue;
+            int j = slotOf(old.keys[i], fresh.mask);
+            while (fresh.keys[j] != EMPTY) j = (j + 1) & fresh.mask;
+            fresh.keys[j] = old.keys[i];
+            fresh.values[j] = value;
+            fresh.claimed++;
+        }
+        table = fresh;
+    }
+
+    private static int slotOf(int id, int mask) {
+        int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
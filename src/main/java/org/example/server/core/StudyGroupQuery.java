@@ -0,0 +1,343 @@
+package org.example.server.core;
+
+import org.example.common.models.*;
+import org.example.server.exceptions.IllegalArguments;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Conjunction of simple predicates over StudyGroup fields, parsed from the 'filter' arguments:
+ * <pre>
+ *   studentsCount &gt;= 10 and form = EVENING_CLASSES and name ^= Gr
+ * </pre>
+ * Numbers (studentsCount, shouldBeExpelled, id, x, y, weight) support {@code = < <= > >=},
+ * enums and owner {@code =}, name {@code =} and prefix {@code ^=}.
+ */
+public record StudyGroupQuery(List<Condition> conditions) {
+    private static final Pattern CONDITION = Pattern.compile("(\\w+)\\s*(>=|<=|\\^=|=|<|>)\\s*(.+)");
+    private static final Pattern AND = Pattern.compile("\\s+(?i:and)\\s+");
+
+    public static StudyGroupQuery parse(String text) throws IllegalArguments {
+        if (text == null || text.isBlank()) throw new IllegalArguments("Пустое условие фильтра");
+        List<Condition> conditions = new ArrayList<>();
+        for (String part : AND.split(text.trim())) {
+            Matcher matcher = CONDITION.matcher(part.trim());
+            if (!matcher.matches()) throw new IllegalArguments("Не распознано условие: " + part);
+            conditions.add(condition(matcher.group(1), matcher.group(2), matcher.group(3).trim()));
+        }
+        return new StudyGroupQuery(List.copyOf(conditions));
+    }
+
+    public boolean test(StudyGroup studyGroup) {
+        for (Condition condition : conditions) {
+            if (!condition.test(studyGroup)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (Condition condition : conditions) {
+            if (!result.isEmpty()) result.append(" and ");
+            result.append(condition);
+        }
+        return result.toString();
+    }
+
+    private static Condition condition(String field, String operator, String value) throws IllegalArguments {
+        switch (field.toLowerCase(Locale.ROOT)) {
+            case "studentscount", "count" -> {
+                return range(NumericField.STUDENTS_COUNT, operator, parseLong(value));
+            }
+            case "shouldbeexpelled", "expelled" -> {
+                return range(NumericField.SHOULD_BE_EXPELLED, operator, parseLong(value));
+            }
+            case "form", "formofeducation" -> {
+                return new EnumEquals<>("form", CollectionIndexes::byForm, ScanColumns::forms, StudyGroup::getFormOfEducation,
+                        parseEnum(FormOfEducation.class, operator, value));
+            }
+            case "semester" -> {
+                return new EnumEquals<>("semester", CollectionIndexes::bySemester, ScanColumns::semesters, StudyGroup::getSemesterEnum,
+                        parseEnum(Semester.class, operator, value));
+            }
+            case "eyecolor" -> {
+                return new EnumEquals<>("eyeColor", CollectionIndexes::byEyeColor, null, sg -> sg.getGroupAdmin().getEyeColor(),
+                        parseEnum(Color.class, operator, value));
+            }
+            case "haircolor" -> {
+                return new EnumEquals<>("hairColor", CollectionIndexes::byHairColor, null, sg -> sg.getGroupAdmin().getHairColor(),
+                        parseEnum(Color.class, operator, value));
+            }
+            case "nationality", "country" -> {
+                return new EnumEquals<>("nationality", CollectionIndexes::byNationality, null, sg -> sg.getGroupAdmin().getNationality(),
+                        parseEnum(Country.class, operator, value));
+            }
+            case "owner" -> {
+                if (!operator.equals("=")) throw new IllegalArguments("owner поддерживает только =");
+                return new OwnerEquals(value);
+            }
+            case "name" -> {
+                if (operator.equals("^=")) return new NamePrefix(value);
+                if (operator.equals("=")) return new NameEquals(value);
+                throw new IllegalArguments("name поддерживает только = и ^=");
+            }
+            default -> {
+                Optional<NumericField> numeric = NumericField.byLabel(field);
+                if (numeric.isEmpty()) throw new IllegalArguments("Неизвестное поле: " + field);
+                return range(numeric.get(), operator, parseLong(value));
+            }
+        }
+    }
+
+    private static Condition range(NumericField field, String operator, long value) throws IllegalArguments {
+        return switch (operator) {
+            case "=" -> new Range(field, value, value);
+            case "<" -> value == Long.MIN_VALUE ? new Range(field, 0, -1) : new Range(field, Long.MIN_VALUE, value - 1);
+            case "<=" -> new Range(field, Long.MIN_VALUE, value);
+            case ">" -> value == Long.MAX_VALUE ? new Range(field, 0, -1) : new Range(field, value + 1, Long.MAX_VALUE);
+            case ">=" -> new Range(field, value, Long.MAX_VALUE);
+            default -> throw new IllegalArguments(field.label + " не поддерживает " + operator);
+        };
+    }
+
+    private static long parseLong(String value) throws IllegalArguments {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArguments("Ожидалось число: " + value);
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String operator, String value) throws IllegalArguments {
+        if (!operator.equals("=")) throw new IllegalArguments(type.getSimpleName() + " поддерживает только =");
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArguments("Нет значения " + value + " в " + type.getSimpleName());
+        }
+    }
+
+    /**
+     * One predicate of the query. An indexed condition reports how many ids its index holds,
+     * which is what the planner uses as its selectivity estimate.
+     */
+    public sealed interface Condition {
+        boolean test(StudyGroup studyGroup);
+
+        /**
+         * @return the number of ids the index lookup would produce, or -1 if no index covers the condition
+         */
+        default int estimate(CollectionIndexes indexes) {
+            return -1;
+        }
+
+        /**
+         * @return the live bitmap (or a fresh one) of candidate ids; only called when {@link #estimate} is not -1
+         */
+        default RoaringBitmap lookup(CollectionIndexes indexes) {
+            throw new UnsupportedOperationException(this + " is not indexed");
+        }
+
+        /**
+         * Narrows the row mask of a column scan to the rows matching the condition.
+         * @return false if the condition has no column mirror and the mask was left untouched
+         */
+        default boolean narrow(ScanColumns columns, long[] mask) {
+            return false;
+        }
+    }
+
+    /**
+     * Numeric fields usable in ranges and top-k. Only some of them have a range index.
+     */
+    public enum NumericField {
+        STUDENTS_COUNT("studentsCount", StudyGroup::getStudentsCount, CollectionIndexes::byStudentsCount, ScanColumns::studentsCounts),
+        SHOULD_BE_EXPELLED("shouldBeExpelled", StudyGroup::getShouldBeExpelled, CollectionIndexes::byShouldBeExpelled, ScanColumns::expelled),
+        ID("id", sg -> (long) sg.getId(), null, null),
+        COORDINATE_X("x", sg -> sg.getCoordinates().getX().longValue(), null, null),
+        COORDINATE_Y("y", sg -> sg.getCoordinates().getY().longValue(), null, null),
+        ADMIN_WEIGHT("weight", sg -> sg.getGroupAdmin().getWeight().longValue(), null, null);
+
+        final String label;
+        private final Function<StudyGroup, Long> value;
+        private final Function<CollectionIndexes, RangeIndex> index;
+        private final Function<ScanColumns, long[]> column;
+
+        NumericField(String label, Function<StudyGroup, Long> value, Function<CollectionIndexes, RangeIndex> index,
+                     Function<ScanColumns, long[]> column) {
+            this.label = label;
+            this.value = value;
+            this.index = index;
+            this.column = column;
+        }
+
+        /**
+         * @return the field value, or null if it is not set
+         */
+        public Long valueOf(StudyGroup studyGroup) {
+            return value.apply(studyGroup);
+        }
+
+        public boolean isIndexed() {
+            return index != null;
+        }
+
+        /**
+         * @return the range index of the field, or null if it has none
+         */
+        RangeIndex index(CollectionIndexes indexes) {
+            return index == null ? null : index.apply(indexes);
+        }
+
+        public String label() {
+            return label;
+        }
+
+        public static Optional<NumericField> byLabel(String label) {
+            return Arrays.stream(values()).filter(field -> field.label.equalsIgnoreCase(label)).findFirst();
+        }
+    }
+
+    /**
+     * {@code min <= field <= max}; a group without the field never matches.
+     */
+    public record Range(NumericField field, long min, long max) implements Condition {
+        @Override
+        public boolean test(StudyGroup studyGroup) {
+            Long value = field.valueOf(studyGroup);
+            return value != null && value >= min && value <= max;
+        }
+
+        @Override
+        public int estimate(CollectionIndexes indexes) {
+            return field.isIndexed() ? field.index(indexes).count(min, max) : -1;
+        }
+
+        @Override
+        public RoaringBitmap lookup(CollectionIndexes indexes) {
+            return field.index(indexes).range(min, max);
+        }
+
+        @Override
+        public boolean narrow(ScanColumns columns, long[] mask) {
+            if (field.column == null) return false;
+            // a missing shouldBeExpelled is mirrored as Long.MIN_VALUE and must never match
+            long from = field == NumericField.SHOULD_BE_EXPELLED ? Math.max(min, ScanColumns.NULL_EXPELLED + 1) : min;
+            ScanKernels.between(field.column.apply(columns), columns.rows(), from, max, mask);
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            if (min == max) return field.label + " = " + min;
+            if (min == Long.MIN_VALUE) return field.label + " <= " + max;
+            if (max == Long.MAX_VALUE) return field.label + " >= " + min;
+            return min + " <= " + field.label + " <= " + max;
+        }
+    }
+
+    public record EnumEquals<E extends Enum<E>>(String label, Function<CollectionIndexes, BitmapIndex<E>> index,
+                                                Function<ScanColumns, byte[]> column,
+                                                Function<StudyGroup, E> attribute, E value) implements Condition {
+        @Override
+        public boolean test(StudyGroup studyGroup) {
+            return attribute.apply(studyGroup) == value;
+        }
+
+        @Override
+        public int estimate(CollectionIndexes indexes) {
+            return index.apply(indexes).cardinality(value);
+        }
+
+        @Override
+        public RoaringBitmap lookup(CollectionIndexes indexes) {
+            return index.apply(indexes).get(value);
+        }
+
+        @Override
+        public boolean narrow(ScanColumns columns, long[] mask) {
+            if (column == null) return false;
+            ScanKernels.equal(column.apply(columns), columns.rows(), ScanColumns.ordinalOf(value), mask);
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return label + " = " + value;
+        }
+    }
+
+    public record OwnerEquals(String owner) implements Condition {
+        @Override
+        public boolean test(StudyGroup studyGroup) {
+            return owner.equals(CollectionManager.ownerOf(studyGroup));
+        }
+
+        @Override
+        public int estimate(CollectionIndexes indexes) {
+            return indexes.byOwner().cardinality(owner);
+        }
+
+        @Override
+        public RoaringBitmap lookup(CollectionIndexes indexes) {
+            return indexes.byOwner().get(owner);
+        }
+
+        @Override
+        public boolean narrow(ScanColumns columns, long[] mask) {
+            int code = columns.ownerCode(owner);
+            if (code == StringDictionary.NULL_CODE) {
+                Arrays.fill(mask, 0L);
+            } else {
+                ScanKernels.equal(columns.ownerCodes(), columns.rows(), code, mask);
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "owner = " + owner;
+        }
+    }
+
+    public record NamePrefix(String prefix) implements Condition {
+        @Override
+        public boolean test(StudyGroup studyGroup) {
+            return studyGroup.getName() != null && studyGroup.getName().startsWith(prefix);
+        }
+
+        /**
+         * The trie is case-insensitive, so its match is a superset that {@link #test} narrows down.
+         */
+        @Override
+        public int estimate(CollectionIndexes indexes) {
+            return indexes.text(CollectionIndexes.TextField.NAME).countPrefix(prefix);
+        }
+
+        @Override
+        public RoaringBitmap lookup(CollectionIndexes indexes) {
+            return indexes.text(CollectionIndexes.TextField.NAME).prefix(prefix, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public String toString() {
+            return "name ^= " + prefix;
+        }
+    }
+
+    public record NameEquals(String name) implements Condition {
+        @Override
+        public boolean test(StudyGroup studyGroup) {
+            return name.equals(studyGroup.getName());
+        }
+
+        @Override
+        public String toString() {
+            return "name = " + name;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.server.core;
+
+import org.example.common.models.StudyGroup;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * In-memory storage behind the CollectionManager id cache.
+ * Implementations are not required to be thread-safe for writers: CollectionManager serializes
+ * mutations and validates concurrent reads with its own lock.
+ */
+public interface StudyGroupStore {
+    StudyGroup get(int id);
+
+    boolean containsKey(int id);
+
+    void put(int id, StudyGroup studyGroup);
+
+    /**
+     * @return true if the id was present
+     */
+    boolean remove(int id);
+
+    void clear();
+
+    int size();
+
+    boolean isEmpty();
+
+    /**
+     * Snapshot of all stored elements. Stores that do not keep objects materialize them here.
+     */
+    List<StudyGroup> values();
+
+    /**
+     * Makes the current contents durable, for stores backed by a file; the others have nothing to do.
+     */
+    default void checkpoint() {
+    }
+
+    /**
+     * Creates the store selected in the server configuration.
+     * @param mode "heap", "columnar" or "offheap"
+     * @param file optional snapshot file for the off-heap store, null for anonymous memory
+     */
+    static StudyGroupStore forMode(String mode, String file) {
+        return switch (mode == null ? "heap" : mode.trim().toLowerCase(Locale.ROOT)) {
+            case "columnar" -> new ColumnarStudyGroupStore();
+            case "offheap" -> (file == null || file.isBlank())
+                    ? new OffHeapStudyGroupStore()
+                    : new OffHeapStudyGroupStore(Path.of(file));
+            case "heap" -> new StudyGroupIdMap();
+            default -> throw new IllegalArgumentException("Unknown storage mode: " + mode);
+        };
+    }
+}
@@ -0,0 +1,173 @@
+package org.example.server.core;
+
+import org.example.common.network.ChangeEvent;
+import org.example.common.network.Notification;
+import org.example.server.network.ResponseSender;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Pushes collection changes to subscribed client addresses as {@link Notification} datagrams,
+ * queued on the shared {@link ResponseSender} like any response.
+ * A subscription covers the whole collection or one owner and lasts for a lease that the client
+ * renews by subscribing again. Events are handed to a single fan-out thread, so the publisher
+ * (holding the collection write lock) never waits for the network and subscribers see events in order.
+ * Its queue is bounded: when the sender falls behind, new events are dropped and counted, and the
+ * subscribers notice the gap in the sequence numbers and catch up with {@code sync}.
+ * <p>
+ * A datagram's source address can be forged, so subscribing takes a round trip: {@link #challenge} answers
+ * with a random token, and only an address that received it and echoes it back through {@link #confirm}
+ * starts getting notifications. The number of subscriptions is capped per host and in total.
+ */
+public class SubscriptionManager {
+    private static final Logger logger = Logger.getLogger(SubscriptionManager.class.getName());
+
+    private final Map<SocketAddress, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final Map<SocketAddress, Pending> pending = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadPoolExecutor fanOut;
+    private final long leaseMillis;
+    private final long confirmMillis;
+    private final int maxTotal;
+    private final int maxPerHost;
+    private volatile ResponseSender sender;
+
+    /**
+     * @param owner the only owner whose elements are reported, or null for all of them
+     */
+    private record Subscription(String owner, long expiresAt, AtomicLong sequence) {
+        boolean matches(String elementOwner) {
+            return owner == null || owner.equals(elementOwner);
+        }
+    }
+
+    private record Pending(String owner, String token, long expiresAt) {
+    }
+
+    /**
+     * @param confirmMillis how long a challenge token stays valid
+     * @param maxTotal      the most subscriptions, and the most pending challenges, at once
+     * @param maxPerHost    the most subscriptions of one IP address, over all its ports
+     * @param maxQueued     the most events waiting for the fan-out thread; later ones are dropped
+     */
+    public SubscriptionManager(long leaseMillis, long confirmMillis, int maxTotal, int maxPerHost, int maxQueued) {
+        this.fanOut = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(maxQueued),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "subscription-fan-out");
+                    thread.setDaemon(true);
+                    return thread;
+                }, (dropped, executor) -> ServerMetrics.getInstance().recordDroppedNotification());
+        this.leaseMillis = leaseMillis;
+        this.confirmMillis = confirmMillis;
+        this.maxTotal = maxTotal;
+        this.maxPerHost = maxPerHost;
+    }
+
+    /**
+     * Sets the sender notifications are queued on; nothing is sent before it is attached.
+     */
+    public void attach(ResponseSender sender) {
+        this.sender = sender;
+    }
+
+    /**
+     * Starts subscribing the address, or renewing its lease; nothing is sent to it until it confirms.
+     * @return the token the address must echo to {@link #confirm}, or null if the limits are reached
+     */
+    public synchronized String challenge(SocketAddress address, String owner) {
+        Objects.requireNonNull(address);
+        long now = System.currentTimeMillis();
+        expire(now);
+        if (!subscriptions.containsKey(address) && !hasRoomFor(address)) return null;
+        if (!pending.containsKey(address) && pending.size() >= maxTotal) return null;
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        String token = HexFormat.of().formatHex(bytes);
+        pending.put(address, new Pending(owner, token, now + confirmMillis));
+        return token;
+    }
+
+    /**
+     * Subscribes the address, or renews its lease, if the token is the one it was last challenged with.
+     * A renewal with the same filter keeps the sequence going.
+     * @return the time the lease expires, in epoch millis, or empty if the token is wrong or expired
+     *         or the limits were reached meanwhile
+     */
+    public synchronized OptionalLong confirm(SocketAddress address, String token) {
+        long now = System.currentTimeMillis();
+        expire(now);
+        Pending challenge = pending.get(address);
+        if (challenge == null || !MessageDigest.isEqual(challenge.token().getBytes(), token.getBytes())) {
+            return OptionalLong.empty();
+        }
+        pending.remove(address);
+        if (!subscriptions.containsKey(address) && !hasRoomFor(address)) return OptionalLong.empty();
+        long expiresAt = now + leaseMillis;
+        String owner = challenge.owner();
+        subscriptions.compute(address, (key, previous) ->
+                new Subscription(owner, expiresAt,
+                        previous != null && Objects.equals(previous.owner(), owner) ? previous.sequence() : new AtomicLong()));
+        logger.info("Subscription of " + address + (owner == null ? "" : " to " + owner) + " until " + expiresAt);
+        return OptionalLong.of(expiresAt);
+    }
+
+    private boolean hasRoomFor(SocketAddress address) {
+        if (subscriptions.size() >= maxTotal) return false;
+        InetAddress host = hostOf(address);
+        if (host == null) return true;
+        long sameHost = subscriptions.keySet().stream().filter(key -> host.equals(hostOf(key))).count();
+        return sameHost < maxPerHost;
+    }
+
+    private static InetAddress hostOf(SocketAddress address) {
+        return address instanceof InetSocketAddress inet ? inet.getAddress() : null;
+    }
+
+    private void expire(long now) {
+        subscriptions.entrySet().removeIf(entry -> entry.getValue().expiresAt() < now);
+        pending.entrySet().removeIf(entry -> entry.getValue().expiresAt() < now);
+    }
+
+    public boolean unsubscribe(SocketAddress address) {
+        if (address == null) return false;
+        pending.remove(address);
+        return subscriptions.remove(address) != null;
+    }
+
+    public int size() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Queues the event for every live subscription matching the owner of the changed element.
+     */
+    public void publish(ChangeEvent event, String owner) {
+        if (subscriptions.isEmpty()) return;
+        fanOut.execute(() -> deliver(event, owner));
+    }
+
+    private void deliver(ChangeEvent event, String owner) {
+        ResponseSender target = sender;
+        if (target == null) return;
+        long now = System.currentTimeMillis();
+        subscriptions.entrySet().removeIf(entry -> entry.getValue().expiresAt() < now);
+        subscriptions.forEach((address, subscription) -> {
+            if (!subscription.matches(owner)) return;
+            target.send(new Notification(subscription.sequence().incrementAndGet(), event), address);
+        });
+    }
+}
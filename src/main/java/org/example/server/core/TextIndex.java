@@ -0,0 +1,229 @@
+package org.example.server.core;
+
+import org.example.common.models.StudyGroup;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Case-insensitive text index over one string attribute of a StudyGroup.
+ * A trie answers prefix lookups by walking the prefix and collecting its subtree; every node keeps
+ * the number of ids below it, so the size of a prefix match is known without collecting it.
+ * Substrings are answered from 1-, 2- and 3-gram bitmaps: a fragment of up to three characters is
+ * one bitmap, a longer one the intersection of its trigrams, verified against the stored text.
+ * Not thread-safe.
+ */
+public class TextIndex {
+    private static final int MAX_GRAM = 3;
+
+    private final Function<StudyGroup, String> attribute;
+    private final Node root = new Node();
+    private final Map<String, RoaringBitmap> grams = new HashMap<>();
+    private final Map<Integer, String> texts = new HashMap<>();
+
+    public TextIndex(Function<StudyGroup, String> attribute) {
+        this.attribute = attribute;
+    }
+
+    public void add(StudyGroup studyGroup) {
+        String value = attribute.apply(studyGroup);
+        if (value == null) return;
+        String text = normalize(value);
+        int id = studyGroup.getId();
+        String previous = texts.put(id, text);
+        if (previous != null) unindex(id, previous);
+
+        Node node = root;
+        node.count++;
+        for (int i = 0; i < text.length(); i++) {
+            node = node.childOrCreate(text.charAt(i));
+            node.count++;
+        }
+        if (node.ids == null) node.ids = new RoaringBitmap();
+        node.ids.add(id);
+        for (String gram : grams(text)) {
+            grams.computeIfAbsent(gram, key -> new RoaringBitmap()).add(id);
+        }
+    }
+
+    public void remove(StudyGroup studyGroup) {
+        String text = texts.remove(studyGroup.getId());
+        if (text != null) unindex(studyGroup.getId(), text);
+    }
+
+    public void clear() {
+        root.clearChildren();
+        root.count = 0;
+        root.ids = null;
+        grams.clear();
+        texts.clear();
+    }
+
+    /**
+     * @return the number of ids whose text starts with the prefix
+     */
+    public int countPrefix(String prefix) {
+        Node node = find(normalize(prefix));
+        return node == null ? 0 : node.count;
+    }
+
+    /**
+     * Collects the subtree of the prefix in lexicographic order of the text and stops after limit ids,
+     * so a truncated result holds the alphabetically first matches; the bitmap itself iterates in id order.
+     * @return up to limit ids whose text starts with the prefix
+     */
+    public RoaringBitmap prefix(String prefix, int limit) {
+        RoaringBitmap result = new RoaringBitmap();
+        Node node = find(normalize(prefix));
+        if (node != null) collect(node, result, limit);
+        return result;
+    }
+
+    /**
+     * @return up to limit ids whose text contains the fragment, smallest ids first
+     * @throws IllegalArgumentException if the fragment is empty
+     */
+    public RoaringBitmap substring(String fragment, int limit) {
+        String text = normalize(fragment);
+        if (text.isEmpty()) throw new IllegalArgumentException("fragment must not be empty");
+        RoaringBitmap result = new RoaringBitmap();
+        RoaringBitmap candidates;
+        if (text.length() <= MAX_GRAM) {
+            candidates = grams.get(text);
+            if (candidates == null) return result;
+        } else {
+            candidates = null;
+            for (int i = 0; i + MAX_GRAM <= text.length(); i++) {
+                RoaringBitmap bitmap = grams.get(text.substring(i, i + MAX_GRAM));
+                if (bitmap == null) return result;
+                candidates = candidates == null ? bitmap : RoaringBitmap.and(candidates, bitmap);
+                if (candidates.isEmpty()) return result;
+            }
+        }
+        boolean verify = text.length() > MAX_GRAM;
+        int[] found = {0};
+        candidates.forEach(id -> {
+            if (found[0] < limit && (!verify || texts.get(id).contains(text))) {
+                result.add(id);
+                found[0]++;
+            }
+        });
+        return result;
+    }
+
+    private void unindex(int id, String text) {
+        removeFromTrie(text, id);
+        for (String gram : grams(text)) {
+            RoaringBitmap bitmap = grams.get(gram);
+            if (bitmap == null) continue;
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) grams.remove(gram);
+        }
+    }
+
+    /**
+     * Walks down to the node of the text, then back up along the recorded path, decrementing the
+     * counts and pruning the children left empty; iterative, so a long text cannot overflow the stack.
+     */
+    private void removeFromTrie(String text, int id) {
+        Node[] path = new Node[text.length() + 1];
+        Node node = root;
+        path[0] = node;
+        for (int depth = 0; depth < text.length(); depth++) {
+            node = node.child(text.charAt(depth));
+            if (node == null) return;
+            path[depth + 1] = node;
+        }
+        if (node.ids == null || !node.ids.remove(id)) return;
+        if (node.ids.isEmpty()) node.ids = null;
+        for (int depth = text.length(); depth >= 0; depth--) {
+            path[depth].count--;
+            if (depth > 0 && path[depth].count == 0) path[depth - 1].removeChild(text.charAt(depth - 1));
+        }
+    }
+
+    private Node find(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Pre-order walk over an explicit stack, children pushed in reverse so that they are visited in
+     * key order.
+     */
+    private static void collect(Node start, RoaringBitmap result, int limit) {
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty() && result.cardinality() < limit) {
+            Node node = stack.pop();
+            if (node.ids != null) {
+                node.ids.forEach(id -> {
+                    if (result.cardinality() < limit) result.add(id);
+                });
+            }
+            for (int i = node.childCount - 1; i >= 0; i--) stack.push(node.children[i]);
+        }
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> result = new HashSet<>();
+        for (int n = 1; n <= MAX_GRAM; n++) {
+            for (int i = 0; i + n <= text.length(); i++) result.add(text.substring(i, i + n));
+        }
+        return result;
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Trie node with children kept in a sorted char array, which is smaller than a map for the
+     * handful of children a name trie has per node.
+     */
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int childCount;
+        private RoaringBitmap ids;
+        private int count;
+
+        Node child(char key) {
+            int i = Arrays.binarySearch(keys, 0, childCount, key);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childOrCreate(char key) {
+            int i = Arrays.binarySearch(keys, 0, childCount, key);
+            if (i >= 0) return children[i];
+            i = -i - 1;
+            if (childCount == keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(2, childCount * 2));
+                children = Arrays.copyOf(children, keys.length);
+            }
+            System.arraycopy(keys, i, keys, i + 1, childCount - i);
+            System.arraycopy(children, i, children, i + 1, childCount - i);
+            keys[i] = key;
+            children[i] = new Node();
+            childCount++;
+            return children[i];
+        }
+
+        void removeChild(char key) {
+            int i = Arrays.binarySearch(keys, 0, childCount, key);
+            if (i < 0) return;
+            System.arraycopy(keys, i + 1, keys, i, childCount - i - 1);
+            System.arraycopy(children, i + 1, children, i, childCount - i - 1);
+            children[--childCount] = null;
+        }
+
+        void clearChildren() {
+            keys = new char[0];
+            children = new Node[0];
+            childCount = 0;
+        }
+    }
+}
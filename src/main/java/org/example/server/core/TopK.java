@@ -0,0 +1,48 @@
+package org.example.server.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the k greatest elements seen under a comparator in a heap of at most k entries,
+ * so selecting them costs O(n log k) instead of a full sort. Partial results of parallel
+ * workers are combined with {@link #merge}. Not thread-safe.
+ */
+public class TopK<T> {
+    private final int k;
+    private final Comparator<? super T> comparator;
+    // min-heap on the comparator: the head is the weakest element still kept
+    private final PriorityQueue<T> heap;
+
+    public TopK(int k, Comparator<? super T> comparator) {
+        this.k = k;
+        this.comparator = comparator;
+        this.heap = new PriorityQueue<>(Math.max(1, k), comparator);
+    }
+
+    public void offer(T element) {
+        if (k <= 0) return;
+        if (heap.size() < k) {
+            heap.add(element);
+        } else if (comparator.compare(element, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(element);
+        }
+    }
+
+    public TopK<T> merge(TopK<T> other) {
+        for (T element : other.heap) offer(element);
+        return this;
+    }
+
+    /**
+     * @return the kept elements, greatest first
+     */
+    public List<T> toList() {
+        List<T> result = new ArrayList<>(heap);
+        result.sort(comparator.reversed());
+        return result;
+    }
+}
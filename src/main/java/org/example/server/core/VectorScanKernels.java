@@ -0,0 +1,70 @@
+package org.example.server.core;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link ScanKernels} on the incubating Vector API. Only loaded when {@link ScanKernels#VECTORIZED} is set.
+ * Each kernel covers whole vectors of rows and returns the first row it did not cover; the caller
+ * finishes the tail with its scalar loop.
+ * <p>
+ * Lane counts are powers of two up to 64 and every vector starts at a multiple of its length, so the
+ * lanes of one vector always fall into a single word of the row mask.
+ */
+final class VectorScanKernels {
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+
+    private VectorScanKernels() {
+    }
+
+    static int between(long[] column, int rows, long min, long max, long[] mask) {
+        int bound = LONGS.loopBound(rows);
+        for (int row = 0; row < bound; row += LONGS.length()) {
+            LongVector values = LongVector.fromArray(LONGS, column, row);
+            VectorMask<Long> matches = values.compare(VectorOperators.GE, min).and(values.compare(VectorOperators.LE, max));
+            keep(mask, row, matches.toLong(), LONGS.length());
+        }
+        return bound;
+    }
+
+    static int equal(byte[] column, int rows, byte value, long[] mask) {
+        int bound = BYTES.loopBound(rows);
+        for (int row = 0; row < bound; row += BYTES.length()) {
+            VectorMask<Byte> matches = ByteVector.fromArray(BYTES, column, row).compare(VectorOperators.EQ, value);
+            keep(mask, row, matches.toLong(), BYTES.length());
+        }
+        return bound;
+    }
+
+    static int equal(int[] column, int rows, int value, long[] mask) {
+        int bound = INTS.loopBound(rows);
+        for (int row = 0; row < bound; row += INTS.length()) {
+            VectorMask<Integer> matches = IntVector.fromArray(INTS, column, row).compare(VectorOperators.EQ, value);
+            keep(mask, row, matches.toLong(), INTS.length());
+        }
+        return bound;
+    }
+
+    static int less(int[] column, int rows, int bound, long[] mask) {
+        int end = INTS.loopBound(rows);
+        for (int row = 0; row < end; row += INTS.length()) {
+            VectorMask<Integer> matches = IntVector.fromArray(INTS, column, row).compare(VectorOperators.LT, bound);
+            keep(mask, row, matches.toLong(), INTS.length());
+        }
+        return end;
+    }
+
+    /**
+     * Clears the mask bits of the lanes starting at {@code row} that did not match.
+     */
+    private static void keep(long[] mask, int row, long matches, int lanes) {
+        long lanesBits = lanes == 64 ? -1L : (1L << lanes) - 1;
+        mask[row >>> 6] &= ~((~matches & lanesBits) << row);
+    }
+}
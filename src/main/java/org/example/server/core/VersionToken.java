@@ -0,0 +1,29 @@
+package org.example.server.core;
+
+/**
+ * Collection version as handed to clients: "epoch:version". The epoch is drawn anew on every server start,
+ * so a version from before a restart is recognized instead of being mistaken for one of the new run.
+ * The bare token "0" stands for "nothing seen yet" and matches any epoch.
+ */
+public record VersionToken(long epoch, long version) {
+    public static final VersionToken INITIAL = new VersionToken(0, 0);
+
+    /**
+     * @throws IllegalArgumentException if the text is neither "0" nor "epoch:version" with non-negative parts
+     */
+    public static VersionToken parse(String text) {
+        String trimmed = text.trim();
+        if (trimmed.equals("0")) return INITIAL;
+        int colon = trimmed.indexOf(':');
+        if (colon < 0) throw new IllegalArgumentException("expected epoch:version: " + text);
+        long epoch = Long.parseLong(trimmed.substring(0, colon));
+        long version = Long.parseLong(trimmed.substring(colon + 1));
+        if (epoch <= 0 || version < 0) throw new IllegalArgumentException("expected epoch:version: " + text);
+        return new VersionToken(epoch, version);
+    }
+
+    @Override
+    public String toString() {
+        return this == INITIAL ? "0" : epoch + ":" + version;
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.server.exceptions;
+
+/**
+ * Exception class for requests whose client deadline has passed; nobody waits for their response.
+ */
+public class RequestExpired extends CommandRuntimeError {
+    public RequestExpired() {
+        super("Request deadline expired");
+    }
+}
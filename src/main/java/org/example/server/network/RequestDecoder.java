@@ -0,0 +1,88 @@
+package org.example.server.network;
+
+import org.example.common.network.Request;
+import org.example.common.utility.ByteBufferInputStream;
+import org.example.server.core.ServerMetrics;
+
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Turns a received datagram into a {@link Request}, rejecting junk as early and cheaply as possible:
+ * first by the serialization stream header, then by an allowlist filter that stops deserialization
+ * at the first unexpected class or at a depth, reference, array or size limit, before the graph is built.
+ * Rejected datagrams are counted and never answered, so a spoofed sender gets no reply.
+ */
+public class RequestDecoder {
+    private static final Logger logger = Logger.getLogger(RequestDecoder.class.getName());
+
+    /**
+     * STREAM_MAGIC followed by STREAM_VERSION: the first four bytes of any Java serialization stream.
+     */
+    static final int STREAM_HEADER = 0xACED0005;
+    /**
+     * Request, StudyGroup, Person, Location and boxed numbers nest five levels deep.
+     */
+    static final int MAX_DEPTH = 8;
+    static final int MAX_REFERENCES = 256;
+    static final int MAX_ARRAY_LENGTH = 64;
+    static final int MAX_BYTES = 65507;
+
+    /**
+     * The request model and the JDK types its fields use; anything else is rejected.
+     */
+    static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=" + MAX_DEPTH + ";maxrefs=" + MAX_REFERENCES + ";maxarray=" + MAX_ARRAY_LENGTH
+                    + ";maxbytes=" + MAX_BYTES
+                    + ";org.example.common.**"
+                    + ";java.lang.Enum;java.lang.Number;java.lang.Integer;java.lang.Long;java.lang.Float;java.lang.Double"
+                    + ";java.time.Ser;java.time.LocalDate"
+                    + ";!*");
+
+    private RequestDecoder() {
+    }
+
+    /**
+     * Checks the size and the serialization header of the datagram between the buffer position and limit
+     * without consuming it. Cheap enough to run on the receiving thread before anything is handed off.
+     * @return false, with the rejection counted, if the datagram cannot be a request
+     */
+    public static boolean acceptsHeader(ByteBuffer datagram) {
+        if (datagram.remaining() < Integer.BYTES || datagram.remaining() > MAX_BYTES
+                || datagram.getInt(datagram.position()) != STREAM_HEADER) {
+            reject("заголовок", null);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the datagram between the buffer position and limit.
+     * @return the request, or empty if the datagram was rejected
+     */
+    public static Optional<Request> decode(ByteBuffer datagram) {
+        if (!acceptsHeader(datagram)) return Optional.empty();
+        try (ObjectInputStream in = new ObjectInputStream(new ByteBufferInputStream(datagram))) {
+            in.setObjectInputFilter(FILTER);
+            Object decoded = in.readObject();
+            if (decoded instanceof Request request) return Optional.of(request);
+            return reject("тип", decoded.getClass().getName());
+        } catch (InvalidClassException e) {
+            return reject("фильтр", e.getMessage());
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            return reject("формат", e.toString());
+        }
+    }
+
+    private static Optional<Request> reject(String reason, String detail) {
+        ServerMetrics.getInstance().recordRejectedDatagram(reason);
+        logger.log(Level.FINE, () -> "Datagram rejected (" + reason + ")" + (detail == null ? "" : ": " + detail));
+        return Optional.empty();
+    }
+}
@@ -3,37 +3,47 @@ import org.example.common.network.Request;
 import org.example.common.network.Response;
 import org.example.common.network.StatusCode;
 import org.example.server.core.CommandManager;
+import org.example.server.core.DatabaseManager;
+import org.example.server.core.ServerMetrics;
 import org.example.server.exceptions.CommandRuntimeError;
 import org.example.server.exceptions.ExitObliged;
 import org.example.server.exceptions.IllegalArguments;
 import org.example.server.exceptions.NoSuchCommand;
+import org.example.server.exceptions.RequestExpired;
 
-import java.io.ByteArrayOutputStream;
-import java.io.ObjectOutputStream;
 import java.net.SocketAddress;
-import java.nio.ByteBuffer;
-import java.nio.channels.DatagramChannel;
 import java.util.concurrent.Callable;
 
 public class RequestHandler implements Callable<Response> {
     private final CommandManager commandManager;
     private final Request request;
-    private final DatagramChannel channel;
+    private final ResponseSender sender;
     private final SocketAddress clientAddress;
 
-    public RequestHandler(CommandManager commandManager, Request request, DatagramChannel channel, SocketAddress clientAddress) {
+    public RequestHandler(CommandManager commandManager, Request request, ResponseSender sender, SocketAddress clientAddress) {
         this.commandManager = commandManager;
         this.request = request;
-        this.channel = channel;
+        this.sender = sender;
         this.clientAddress = clientAddress;
     }
 
+    /**
+     * @return the response sent, or null if the request expired before it was done and nothing was sent
+     */
     @Override
     public Response call() {
+        if (request.isExpired()) {
+            ServerMetrics.getInstance().recordExpired("очередь");
+            return null;
+        }
+        long allocatedBefore = ServerMetrics.currentThreadAllocatedBytes();
         Response response;
+        DatabaseManager.setDeadline(request.getDeadline());
         try {
             commandManager.addToHistory(String.valueOf(request.getUser()), request.getCommandName());
             response = commandManager.execute(request);
+        } catch (RequestExpired e) {
+            return null;
         } catch (IllegalArguments e) {
             response = new Response(StatusCode.WRONG_ARGUMENTS, "Неверное использование аргументов команды");
         } catch (CommandRuntimeError e) {
@@ -42,27 +52,13 @@ public class RequestHandler implements Callable<Response> {
             response = new Response(StatusCode.ERROR, "Такой команды нет в списке");
         } catch (ExitObliged e) {
             response = new Response(StatusCode.EXIT);
+        } finally {
+            DatabaseManager.setDeadline(0);
         }
 
-        sendResponse(response);
+        sender.send(response, clientAddress);
+        ServerMetrics.getInstance().recordAllocated(ServerMetrics.currentThreadAllocatedBytes() - allocatedBefore);
         return response;
     }
-
-    private void sendResponse(Response response) {
-        try {
-            ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-            ObjectOutputStream objectOut = new ObjectOutputStream(byteStream);
-            objectOut.writeObject(response);
-            objectOut.flush();
-
-            byte[] data = byteStream.toByteArray();
-            ByteBuffer buffer = ByteBuffer.wrap(data);
-
-            channel.send(buffer, clientAddress);
-        } catch (Exception e) {
-            System.err.println("Ошибка при отправке ответа клиенту: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
 }
 
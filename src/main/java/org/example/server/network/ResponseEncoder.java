@@ -0,0 +1,43 @@
+package org.example.server.network;
+
+import org.example.common.network.Response;
+import org.example.common.utility.ByteBufferOutputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Serializes responses and notifications for sending. A response that already carries its encoded bytes
+ * (a cached one) is not serialized again.
+ */
+public class ResponseEncoder {
+    private ResponseEncoder() {
+    }
+
+    public static byte[] serialize(Response response) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(response);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes the message into the buffer from its position: the cached bytes of a response, or serialized in place.
+     * @throws BufferOverflowException if the message does not fit before the buffer limit
+     */
+    public static void encodeInto(Serializable message, ByteBuffer buffer) throws IOException {
+        byte[] encoded = message instanceof Response response ? response.getEncoded() : null;
+        if (encoded != null) {
+            buffer.put(encoded);
+            return;
+        }
+        try (ObjectOutputStream out = new ObjectOutputStream(new ByteBufferOutputStream(buffer))) {
+            out.writeObject(message);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.server.network;
+
+import org.example.common.network.Notification;
+import org.example.common.network.Response;
+import org.example.common.network.StatusCode;
+import org.example.common.utility.DirectBufferPool;
+import org.example.server.core.ServerMetrics;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.SocketAddress;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The only writer to the channel, for responses and pushed notifications alike. Workers enqueue messages
+ * and return at once; the sender thread drains everything queued on each wakeup and serializes each message
+ * straight into a pooled direct buffer, so datagrams are not interleaved by concurrent sends and no heap copy
+ * is made per send.
+ */
+public class ResponseSender {
+    private static final Logger logger = Logger.getLogger(ResponseSender.class.getName());
+    /**
+     * Largest UDP payload over IPv4.
+     */
+    public static final int MAX_DATAGRAM = 65507;
+    static final int MAX_BATCH = 64;
+
+    private record Outgoing(Serializable message, SocketAddress address, long enqueuedAt) {
+    }
+
+    private final DatagramChannel channel;
+    private final BlockingQueue<Outgoing> queue = new LinkedBlockingQueue<>();
+    private final DirectBufferPool pool = DirectBufferPool.shared();
+    private final Thread thread;
+
+    public ResponseSender(DatagramChannel channel) {
+        this.channel = channel;
+        this.thread = new Thread(this::run, "response-sender");
+        thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    public void stop() {
+        thread.interrupt();
+    }
+
+    /**
+     * Queues the response for the address; never blocks.
+     */
+    public void send(Response response, SocketAddress address) {
+        enqueue(response, address);
+    }
+
+    /**
+     * Queues the notification for the address; never blocks. One too large for a datagram is dropped,
+     * the subscriber sees the gap in the sequence and catches up with sync.
+     */
+    public void send(Notification notification, SocketAddress address) {
+        enqueue(notification, address);
+    }
+
+    private void enqueue(Serializable message, SocketAddress address) {
+        queue.add(new Outgoing(message, address, System.nanoTime()));
+        ServerMetrics.getInstance().recordOutboundDepth(queue.size());
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<Outgoing> batch = new ArrayList<>(MAX_BATCH);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            for (Outgoing outgoing : batch) {
+                write(outgoing);
+            }
+            ServerMetrics.getInstance().recordSendBatch();
+            batch.clear();
+        }
+    }
+
+    private void write(Outgoing outgoing) {
+        long allocatedBefore = ServerMetrics.currentThreadAllocatedBytes();
+        try (DirectBufferPool.Lease lease = pool.acquire()) {
+            ByteBuffer buffer = lease.buffer();
+            buffer.limit(MAX_DATAGRAM);
+            try {
+                ResponseEncoder.encodeInto(outgoing.message(), buffer);
+            } catch (BufferOverflowException e) {
+                if (!(outgoing.message() instanceof Response)) {
+                    logger.warning("Notification to " + outgoing.address() + " does not fit into a datagram, dropped");
+                    return;
+                }
+                logger.warning("Response to " + outgoing.address() + " does not fit into a datagram, sending an error instead");
+                buffer.clear().limit(MAX_DATAGRAM);
+                ResponseEncoder.encodeInto(new Response(StatusCode.ERROR,
+                        "Ответ не помещается в датаграмму, запросите его постранично (show <размер_страницы>)"), buffer);
+            }
+            buffer.flip();
+            channel.send(buffer, outgoing.address());
+            ServerMetrics.getInstance().recordSendLatency(System.nanoTime() - outgoing.enqueuedAt());
+            ServerMetrics.getInstance().recordAllocated(ServerMetrics.currentThreadAllocatedBytes() - allocatedBefore);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Ошибка при отправке ответа клиенту " + outgoing.address() + ": " + e.getMessage(), e);
+        }
+    }
+}
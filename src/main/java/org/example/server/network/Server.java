@@ -3,18 +3,25 @@ package org.example.server.network;
 import org.example.common.network.Request;
 import org.example.common.network.Response;
 import org.example.common.network.StatusCode;
+import org.example.common.utility.DirectBufferPool;
 import org.example.server.ServerApp;
 
 import org.example.server.core.CommandManager;
 import org.example.server.core.DatabaseManager;
+import org.example.server.core.RequestScheduler;
+import org.example.server.core.ServerMetrics;
+import org.example.server.core.SubscriptionManager;
 
 import java.io.*;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.DatagramChannel;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -24,13 +31,27 @@ public class Server {
     private final int port;
     private final CommandManager commandManager;
     private final DatabaseManager databaseManager;
+    private final SubscriptionManager subscriptionManager;
     private DatagramChannel channel;
-    private final ExecutorService executor = Executors.newCachedThreadPool();
-
-    public Server(CommandManager commandManager, DatabaseManager databaseManager) {
+    private ResponseSender sender;
+    /**
+     * Decodes accepted datagrams off the receiving thread. Bounded in threads and queue: once it is full,
+     * datagrams are dropped on arrival and their buffers go straight back to the pool.
+     */
+    private final ThreadPoolExecutor decoders = new ThreadPoolExecutor(
+            ServerApp.DECODE_THREADS, ServerApp.DECODE_THREADS, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(ServerApp.DECODE_QUEUE), runnable -> {
+                Thread thread = new Thread(runnable, "request-decoder");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+    private final RequestScheduler scheduler = new RequestScheduler(ServerApp.REQUEST_WORKERS, ServerApp.REQUEST_LANES);
+
+    public Server(CommandManager commandManager, DatabaseManager databaseManager, SubscriptionManager subscriptionManager) {
         this.port = ServerApp.PORT;
         this.commandManager = commandManager;
         this.databaseManager = databaseManager;
+        this.subscriptionManager = subscriptionManager;
     }
 
     public void run() {
@@ -38,25 +59,42 @@ public class Server {
             channel = DatagramChannel.open();
             channel.bind(new InetSocketAddress(port));
             channel.configureBlocking(true);
+            sender = new ResponseSender(channel);
+            sender.start();
+            subscriptionManager.attach(sender);
 
             logger.info("UDP сервер (DatagramChannel) запущен на порту " + port);
 
-            while (true) {
-                ByteBuffer buffer = ByteBuffer.allocate(65535); // Buffer for receiving data
-                SocketAddress clientAddress = channel.receive(buffer);
-
-                if (clientAddress != null) {
+            DirectBufferPool.Lease lease = null;
+            try {
+                while (true) {
+                    // the datagram is decoded in place; the decoder releases the buffer when done
+                    if (lease == null) lease = DirectBufferPool.shared().acquire();
+                    ByteBuffer buffer = lease.buffer().clear();
+                    SocketAddress clientAddress = channel.receive(buffer);
+                    long receivedAt = System.nanoTime();
+                    if (clientAddress == null) continue;
                     buffer.flip();
-                    byte[] data = new byte[buffer.remaining()];
-                    buffer.get(data);
-
-                    executor.submit(() -> handleRequest(data, clientAddress));
+                    // junk is dropped here, and its buffer kept for the next datagram
+                    if (!RequestDecoder.acceptsHeader(buffer)) continue;
+
+                    DirectBufferPool.Lease accepted = lease;
+                    lease = null;
+                    try {
+                        decoders.execute(() -> handleRequest(accepted, clientAddress, receivedAt));
+                    } catch (RejectedExecutionException e) {
+                        accepted.release();
+                        ServerMetrics.getInstance().recordRejectedDatagram("перегрузка");
+                    }
                 }
+            } finally {
+                if (lease != null) lease.release();
             }
 
         } catch (IOException e) {
             logger.log(Level.SEVERE, "Не удалось запустить сервер: " + e.getMessage(), e);
         } finally {
+            if (sender != null) sender.stop();
             if (channel != null && channel.isOpen()) {
                 try {
                     channel.close();
@@ -67,35 +105,25 @@ public class Server {
         }
     }
 
-    private void handleRequest(byte[] data, SocketAddress clientAddress) {
-        try (ByteArrayInputStream byteStream = new ByteArrayInputStream(data);
-             ObjectInputStream objectInput = new ObjectInputStream(byteStream)) {
-
-            Request request = (Request) objectInput.readObject();
-
-            RequestHandler handler = new RequestHandler(commandManager, request, channel, clientAddress);
-            handler.call(); // Sends response internally
-
-        } catch (IOException | ClassNotFoundException e) {
-            logger.log(Level.WARNING, "Ошибка при обработке запроса: " + e.getMessage(), e);
-            sendErrorResponse(clientAddress, "Ошибка при обработке запроса: " + e.getMessage());
+    private void handleRequest(DirectBufferPool.Lease lease, SocketAddress clientAddress, long receivedAt) {
+        long allocatedBefore = ServerMetrics.currentThreadAllocatedBytes();
+        try (lease) {
+            Optional<Request> decoded = RequestDecoder.decode(lease.buffer());
+            if (decoded.isEmpty()) return; // junk is counted and dropped without a reply
+            Request request = decoded.get();
+            ServerMetrics.getInstance().recordRequest();
+            ServerMetrics.getInstance().recordAllocated(ServerMetrics.currentThreadAllocatedBytes() - allocatedBefore);
+            request.setClientAddress(clientAddress);
+            request.markReceived(receivedAt);
+
+            RequestHandler handler = new RequestHandler(commandManager, request, sender, clientAddress);
+            if (!scheduler.submit(commandManager.classOf(request), handler::call)) { // sends response internally
+                sendErrorResponse(clientAddress, "Сервер перегружен, повторите запрос позже");
+            }
         }
     }
 
     private void sendErrorResponse(SocketAddress address, String message) {
-        try {
-            Response response = new Response(StatusCode.ERROR, message);
-            ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-            ObjectOutputStream objectOutput = new ObjectOutputStream(byteStream);
-            objectOutput.writeObject(response);
-            objectOutput.flush();
-
-            byte[] respBytes = byteStream.toByteArray();
-            ByteBuffer buffer = ByteBuffer.wrap(respBytes);
-
-            channel.send(buffer, address);
-        } catch (IOException e) {
-            logger.log(Level.WARNING, "Ошибка при отправке сообщения об ошибке клиенту: " + e.getMessage(), e);
-        }
+        sender.send(new Response(StatusCode.ERROR, message), address);
     }
 }